@@ -3,26 +3,34 @@ package cs3500.animator;
 import cs3500.animator.controller.AnimatorController;
 import cs3500.animator.controller.IAnimatorController;
 import cs3500.animator.controller.InteractiveController;
+import cs3500.animator.model.ArrayAnimatorModel;
+import cs3500.animator.model.BakedAnimation;
 import cs3500.animator.model.IAnimatorModel;
+import cs3500.animator.model.IAnimatorModelImpl;
 import cs3500.animator.model.IAnimatorModelImpl.Builder;
+import cs3500.animator.model.ROAnimatorModelImpl;
 import cs3500.animator.util.AnimationReader;
+import cs3500.animator.util.AnimationStream;
+import cs3500.animator.view.AnimatorBinaryView;
 import cs3500.animator.view.AnimatorInteractiveView;
 import cs3500.animator.view.AnimatorSVGView;
 import cs3500.animator.view.AnimatorTextView;
 import cs3500.animator.view.AnimatorVisualView;
 import cs3500.animator.view.IAnimatorInteractiveView;
 import cs3500.animator.view.IAnimatorView;
+import cs3500.animator.view.IPlaybackView;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Main class to run our Excellence animator.
@@ -30,6 +38,7 @@ import java.util.TimerTask;
 public final class Excellence {
 
   private static FileWriter file;
+  private static FileOutputStream binaryFile; // File the binary view writes to, if any
   private static Timer timer;
 
   /**
@@ -54,6 +63,8 @@ public final class Excellence {
     Map<String, String> params = new HashMap<>();
     IAnimatorView view;
     int speed = 1;
+    int parallelThreshold = 0;
+    int historyDepth = InteractiveController.DEFAULT_HISTORY_DEPTH;
     while (scan.hasNext()) {
       String command = scan.next();
       switch (command) {
@@ -69,37 +80,126 @@ public final class Excellence {
         case "-speed":
           speed = scan.nextInt();
           break;
+        case "-model":
+          params.put("model", scan.next());
+          break;
+        case "-parallel":
+          parallelThreshold = scan.nextInt();
+          break;
+        case "-bake":
+          params.put("bake", scan.next());
+          break;
+        case "-history":
+          historyDepth = scan.nextInt();
+          break;
+        case "-stream":
+          params.put("stream", "true");
+          break;
+        case "-parallelread":
+          params.put("parallelread", "true");
+          break;
         default:
           // Do nothing
       }
     }
     // Parameters initialized at this point:
     view = viewFactory(params.get("view"), params.getOrDefault("out", null));
-    Readable inputFile;
-    try {
-      inputFile = new FileReader(new File(params.get("in")));
-    } catch (FileNotFoundException e) {
-      throw new IllegalStateException("File not found");
+    if (params.containsKey("bake")) {
+      playBaked(params, view, speed, parallelThreshold);
+      return;
+    }
+    // Only the visual view draws ticks as they come, the others need the whole animation at once
+    if (params.containsKey("stream") && params.get("view").equals("visual")) {
+      playStreamed(params, view, speed, parallelThreshold);
+      return;
     }
-    IAnimatorModel model = AnimationReader.parseFile(inputFile, new Builder());
+    IAnimatorModel model = readModel(params, parallelThreshold);
     // Delay is 1000 ms divided by the given speed (or 1 by default)
     IAnimatorController controller;
     if (params.get("view").equals("edit")) {
       controller = new InteractiveController(model, (IAnimatorInteractiveView) view,
-          (1000 / speed));
+          (1000 / speed), historyDepth);
     } else {
       controller = new AnimatorController(model, view, (1000 / speed));
     }
     controller.startTimer();
 
     // Checks if the file is done writing to, if it is, flushes and closes file
-    if (file != null) {
+    if (file != null || binaryFile != null) {
       timer = new Timer();
       // Waits a second then checks every delay (1000 / speed ms)
       timer.schedule(new CheckTask(view), 1000, (1000 / speed));
     }
   }
 
+  /**
+   * Reads the animation in the file given with -in into the model given with -model. The file is
+   * read in order, keeping nothing in memory but the model. With -parallelread it is instead read
+   * a chunk per thread, which builds the same model sooner but holds every record of the file in
+   * memory until then.
+   *
+   * @param params Parameters given on the command line
+   * @param parallelThreshold Number of shapes from which frames are evaluated in parallel
+   * @return the model read
+   * @throws IllegalStateException if the model is not supported or the file cannot be read
+   */
+  private static IAnimatorModel readModel(Map<String, String> params, int parallelThreshold)
+      throws IllegalStateException {
+    Builder builder = new Builder(modelFactory(params.get("model"), parallelThreshold));
+    if (params.containsKey("parallelread")) {
+      return AnimationReader.parseFile(Paths.get(params.get("in")), builder,
+          ForkJoinPool.commonPool());
+    }
+    return AnimationReader.parseFile(Paths.get(params.get("in")), builder);
+  }
+
+  /**
+   * Plays the animation baked into the file given with -bake. If an input file is also given, the
+   * animation is read from it and baked into that file first; otherwise the file must have been
+   * baked before.
+   *
+   * @param params Parameters given on the command line
+   * @param view View to play the animation on
+   * @param speed Ticks per second to play the animation at
+   * @param parallelThreshold Number of shapes from which frames are evaluated in parallel
+   * @throws IllegalStateException if the view is not visual or the files cannot be read
+   */
+  private static void playBaked(Map<String, String> params, IAnimatorView view, int speed,
+      int parallelThreshold) throws IllegalStateException {
+    // Baked animations keep no motions to describe, so only a view that just plays can show them
+    if (!(view instanceof IPlaybackView)) {
+      throw new IllegalStateException("Baked animations can only be played visually");
+    }
+    File baked = new File(params.get("bake"));
+    if (params.containsKey("in")) {
+      IAnimatorModel model = readModel(params, parallelThreshold);
+      // Every frame is only evaluated once, so there is no point in caching any
+      BakedAnimation.bake(new ROAnimatorModelImpl(model, 0), baked);
+    }
+    new AnimatorController(new BakedAnimation(baked), (IPlaybackView) view, (1000 / speed))
+        .startTimer();
+  }
+
+  /**
+   * Plays the animation visually while it is still being read, starting as soon as its first
+   * ticks are loaded rather than once the whole file is. If the file turns out not to be valid
+   * while it plays, playback stops there and the error is thrown on the event thread.
+   *
+   * @param params Parameters given on the command line
+   * @param view View to play the animation on
+   * @param speed Ticks per second to play the animation at
+   * @param parallelThreshold Number of shapes from which frames are evaluated in parallel
+   * @throws IllegalStateException if the model is not supported
+   */
+  private static void playStreamed(Map<String, String> params, IAnimatorView view, int speed,
+      int parallelThreshold) throws IllegalStateException {
+    IAnimatorModel model = modelFactory(params.get("model"), parallelThreshold);
+    Builder builder = new Builder(model);
+    AnimationStream<IAnimatorModel> stream = AnimationStream.start(Paths.get(params.get("in")),
+        builder, builder::flush);
+    new AnimatorController(model, view, (1000 / speed), stream::isLoaded).startTimer();
+  }
+
   // Checks if the view is done writing
   private static class CheckTask extends TimerTask {
 
@@ -115,8 +215,13 @@ public final class Excellence {
       if (view.finished()) {
         try {
           // Closes file, stops timer
-          file.flush();
-          file.close();
+          if (file != null) {
+            file.flush();
+            file.close();
+          }
+          if (binaryFile != null) {
+            binaryFile.close();
+          }
           timer.cancel();
         } catch (IOException e) {
           e.printStackTrace();
@@ -125,6 +230,33 @@ public final class Excellence {
     }
   }
 
+  /**
+   * Creates the empty model to read the animation into.
+   *
+   * @param model String of the model to create, or null for the default model
+   * @param parallelThreshold Number of shapes from which frames are evaluated in parallel, or 0
+   *                          to always evaluate them sequentially
+   * @return the new model object
+   * @throws IllegalStateException if the given model String is not supported
+   */
+  private static IAnimatorModel modelFactory(String model, int parallelThreshold)
+      throws IllegalStateException {
+    ForkJoinPool pool = parallelThreshold > 0 ? ForkJoinPool.commonPool() : null;
+    switch (model == null ? "default" : model) {
+      case "default":
+        IAnimatorModelImpl defaultModel = new IAnimatorModelImpl();
+        defaultModel.setParallelEvaluation(pool, parallelThreshold);
+        return defaultModel;
+      case "array":
+        // Dense arrays of shape state, for scenes with a large number of shapes
+        ArrayAnimatorModel arrayModel = new ArrayAnimatorModel();
+        arrayModel.setParallelEvaluation(pool, parallelThreshold);
+        return arrayModel;
+      default:
+        throw new IllegalStateException("Type of model not supported");
+    }
+  }
+
   /**
    * Processes the type of view wanted and creates and returns it.
    *
@@ -137,6 +269,18 @@ public final class Excellence {
       throws IllegalStateException {
     IAnimatorView finalView;
     Appendable out;
+    // Binary output is written as bytes rather than characters
+    if ("binary".equals(view)) {
+      if (output == null) {
+        return new AnimatorBinaryView(System.out);
+      }
+      try {
+        binaryFile = new FileOutputStream(output);
+      } catch (IOException e) {
+        throw new IllegalStateException("File not found");
+      }
+      return new AnimatorBinaryView(binaryFile);
+    }
     // Determining the output
     if (output == null) {
       out = new OutputStreamWriter(System.out);
@@ -2,20 +2,26 @@ package cs3500.animator.controller;
 
 import cs3500.animator.model.IAnimatorModel;
 import cs3500.animator.model.IROAnimatorModel;
+import cs3500.animator.model.IROPlaybackModel;
 import cs3500.animator.model.ROAnimatorModelImpl;
 import cs3500.animator.view.IAnimatorView;
+import cs3500.animator.view.IPlaybackView;
 import java.awt.event.ActionEvent;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
 import javax.swing.Timer;
 
 
 /**
- * Represents an animator controller that runs the animation based on the given time.
+ * Represents an animator controller that runs the animation based on the given time. The
+ * animation may still be loading while it is played, in which case the controller waits at the
+ * first tick that is not loaded yet until it is, or stops if it cannot be loaded.
  */
 public class AnimatorController implements IAnimatorController {
 
   private Timer timer;
-  private IAnimatorView view;
-  private IROAnimatorModel model;
+  private IntConsumer render; // Draws the model on the view at the given tick
+  private IntPredicate loaded; // Ticks that can be played, every tick unless still loading
   private int tick = 0;
 
   /**
@@ -31,15 +37,70 @@ public class AnimatorController implements IAnimatorController {
     if (model == null || view == null || delay < 0) {
       throw new IllegalArgumentException("Illegal parameters for controller");
     }
-    this.model = new ROAnimatorModelImpl(model);
-    this.view = view;
+    IROAnimatorModel readOnly = new ROAnimatorModelImpl(model);
+    this.render = t -> view.render(readOnly, t);
+    this.loaded = t -> true;
     timer = new Timer(delay, (ActionEvent e) ->
         getNewShapes());
   }
 
-  // Increments timer and updates shapes
+  /**
+   * Constructs an {@code AnimatorController} that runs the given model on the given view while
+   * the model is still being loaded, with the speed set to the given delay. Playback waits at any
+   * tick that is not loaded yet, and goes on once it is. If the loaded ticks throw an
+   * {@code IllegalStateException}, such as when the file being read turns out to be invalid,
+   * playback stops and the exception is thrown on.
+   *
+   * @param model Read-only model to get shapes from
+   * @param view View to draw the shapes on
+   * @param delay Delay in milliseconds the timer is run on
+   * @param loaded Returns if the given tick is loaded, such as {@code AnimationStream.isLoaded}
+   * @throws IllegalArgumentException if the model, view or loaded ticks are null or the delay is
+   *                                  less than 0
+   */
+  public AnimatorController(IAnimatorModel model, IAnimatorView view, int delay,
+      IntPredicate loaded) {
+    this(model, view, delay);
+    if (loaded == null) {
+      throw new IllegalArgumentException("Illegal parameters for controller");
+    }
+    this.loaded = loaded;
+  }
+
+  /**
+   * Constructs an {@code AnimatorController} that plays the given read-only animation, such as a
+   * baked animation, on the given view, with the speed set to the given delay. The animation may
+   * not be able to describe its motions, so only a view that just draws the shapes can play it.
+   *
+   * @param model Read-only animation to get shapes from
+   * @param view View to draw the shapes on
+   * @param delay Delay in milliseconds the timer is run on
+   * @throws IllegalArgumentException if the model or view are null or the delay is less than 0
+   */
+  public AnimatorController(IROPlaybackModel model, IPlaybackView view, int delay) {
+    if (model == null || view == null || delay < 0) {
+      throw new IllegalArgumentException("Illegal parameters for controller");
+    }
+    this.render = t -> view.render(model, t);
+    this.loaded = t -> true;
+    timer = new Timer(delay, (ActionEvent e) ->
+        getNewShapes());
+  }
+
+  // Increments timer and updates shapes, unless the tick is still loading, and stops if it never
+  // will be
   private void getNewShapes() {
-    view.render(model, tick++);
+    boolean ready;
+    try {
+      ready = loaded.test(tick);
+    } catch (IllegalStateException e) {
+      timer.stop();
+      throw e;
+    }
+    if (!ready) {
+      return;
+    }
+    render.accept(tick++);
   }
 
   @Override
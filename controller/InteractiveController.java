@@ -14,16 +14,18 @@ import javax.swing.Timer;
 /**
  * An interactive controller compatible with {@code IAnimatorInteractiveView}. Has the ability to
  * accept events from the view. Can add shapes, keyframes, remove them, pause/un-pause the
- * animation, and set the tick. Also allows the user to decide if the animation loops or not.
+ * animation, and set the tick. Also allows the user to decide if the animation loops or not, and
+ * to undo and redo edits.
  */
 public class InteractiveController implements IAnimatorController, ActionListener {
 
+  public static final int DEFAULT_HISTORY_DEPTH = 100; // Edits that can be undone by default
+
   private Timer timer;
   private IAnimatorInteractiveView view;
   private IAnimatorModel model;
   private boolean paused = false; // If the animation is paused or not
   private boolean looping = false; // If the animation is looping or not
-  private int finalTick;
   private int tick = 0;
   private IROAnimatorModel readOnly;
 
@@ -37,14 +39,30 @@ public class InteractiveController implements IAnimatorController, ActionListene
    * @throws IllegalArgumentException if the model or view are null, or the delay is less than 0
    */
   public InteractiveController(IAnimatorModel model, IAnimatorInteractiveView view, int delay) {
+    this(model, view, delay, DEFAULT_HISTORY_DEPTH);
+  }
+
+  /**
+   * Constructs an instance of the interactive controller that can undo up to the given number of
+   * edits, adding itself as the listener for the view.
+   *
+   * @param model The model to use
+   * @param view The view to work off of
+   * @param delay The timer delay to initially use
+   * @param historyDepth The most edits that can be undone, 0 to not record edits
+   * @throws IllegalArgumentException if the model or view are null, or the delay or history depth
+   *                                  are less than 0
+   */
+  public InteractiveController(IAnimatorModel model, IAnimatorInteractiveView view, int delay,
+      int historyDepth) {
     // Initial setup
-    if (model == null || view == null || delay < 0) {
+    if (model == null || view == null || delay < 0 || historyDepth < 0) {
       throw new IllegalArgumentException("Illegal parameters for controller");
     }
     this.model = model;
+    model.setHistoryDepth(historyDepth);
     this.view = view;
     readOnly = new ROAnimatorModelImpl(model);
-    finalTick = model.getFinalTick();
     view.acceptListener(this);
     timer = new Timer(delay, (ActionEvent e) ->
         getNewShapes());
@@ -85,6 +103,13 @@ public class InteractiveController implements IAnimatorController, ActionListene
       case "removeKeyFrame":
         removeKeyFrame(scan.nextLine());
         break;
+      case "undo":
+        // Nothing happens if there is no edit to undo
+        model.undo();
+        break;
+      case "redo":
+        model.redo();
+        break;
       case "setDelay":
         int delay = scan.nextInt();
         timer.setDelay(1000 - delay);
@@ -130,8 +155,9 @@ public class InteractiveController implements IAnimatorController, ActionListene
 
   // Increments timer and updates shapes
   private void getNewShapes() {
-    if (looping && tick > finalTick) {
-      tick = 0;
+    // Edits can move the end of the animation, so its span is checked on every tick
+    if (looping && tick > readOnly.getFinalTick()) {
+      tick = readOnly.getStartTick();
       view.render(readOnly.loop(), tick++);
     } else {
       view.render(readOnly, tick++);
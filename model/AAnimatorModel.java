@@ -0,0 +1,642 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Represents the part of an animator that every way of storing shapes shares: the IDs, motions,
+ * and compiled timelines of the shapes, the published snapshot, batches, and the history of
+ * edits. Every shape is given an integer handle when it is added, which indexes its state; handles
+ * of removed shapes are left empty and never given out again. Subclasses only decide how the
+ * type and original state of each shape are stored.
+ *
+ * <p>Edits are synchronized and only change the state of the model. Readers on other threads go
+ * through immutable snapshots instead, which are published on the first read after an edit, or
+ * after a batch of edits is committed.</p>
+ */
+abstract class AAnimatorModel implements IAnimatorModel {
+
+  private final ShapeIdIndex handles; // Handles of the IDs of shapes in the model
+  private final List<String> names; // ID of the shape with each handle, null if it was removed
+  private final List<List<IMotion>> motions; // Motions of each handle, sorted by start time
+  private final List<ShapeTimeline> timelines; // Compiled timelines, null until first needed
+  private volatile ModelSnapshot snapshot; // Snapshot of the current version, null if out of date
+  private ForkJoinPool pool; // Pool to evaluate frames on, null if only sequential
+  private int parallelThreshold = 0; // Shapes below which frames are evaluated sequentially
+  private int[] bounds; // Bounding box for the canvas
+  private final ShapeSpans spans; // First and last tick of the motions of each handle
+  private volatile int version = 0; // Incremented every time a shape or motion changes
+  private final EditHistory history; // Edits of shapes that can be undone and redone
+  private EditBatch batch; // Batch of edits being made, null if edits apply right away
+
+  /**
+   * Constructs an animator with no shapes.
+   */
+  AAnimatorModel() {
+    handles = new ShapeIdIndex();
+    spans = new ShapeSpans();
+    names = new ArrayList<>();
+    motions = new ArrayList<>();
+    timelines = new ArrayList<>();
+    history = new EditHistory();
+  }
+
+  /**
+   * Stores the type and original state of the shape with the given handle, which is either the
+   * next handle to be given out or the handle of a shape whose original state is being replaced.
+   *
+   * @param handle The handle of the shape
+   * @param type The type of the shape
+   * @param original The original state, in the order of x, y, width, height, red, green, blue,
+   *                 already checked
+   * @throws IllegalArgumentException if the type is not supported
+   */
+  abstract void storeShape(int handle, ShapeType type, int[] original);
+
+  /**
+   * Forgets the type and original state of the removed shape with the given handle.
+   *
+   * @param handle The handle of the shape
+   */
+  abstract void discardShape(int handle);
+
+  /**
+   * Returns the type of the shape with the given handle.
+   *
+   * @param handle The handle of the shape, which must exist
+   * @return the type of the shape
+   */
+  abstract ShapeType typeOf(int handle);
+
+  /**
+   * Returns the original state of the shape with the given handle.
+   *
+   * @param handle The handle of the shape, which must exist
+   * @return a new array of the state, in the order of x, y, width, height, red, green, blue
+   */
+  abstract int[] originalOf(int handle);
+
+  @Override
+  public synchronized void setBounds(int[] bounds) throws IllegalArgumentException {
+    if (bounds == null || bounds.length < 4) {
+      throw new IllegalArgumentException("Illegal of bounds given");
+    }
+
+    this.bounds = bounds;
+    if (batch == null) {
+      snapshot = null;
+    }
+  }
+
+  @Override
+  public int[] getBounds() throws IllegalStateException {
+    if (bounds == null) {
+      throw new IllegalStateException("Bounds not declared");
+    }
+    return new int[]{bounds[0], bounds[1], bounds[2], bounds[3]};
+  }
+
+  @Override
+  public synchronized void addShape(ShapeType shape, String id, int x, int y, int width,
+      int height, int r, int g, int b) throws IllegalArgumentException {
+    // Checking if the shape or ID is null
+    if (shape == null || id == null) {
+      throw new IllegalArgumentException("Null parameters");
+    }
+    // Checking if the width and height are less than zero
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Width or height less than zero");
+    }
+    // Checking if the shape already exists
+    if (handles.get(id) >= 0) {
+      throw new IllegalArgumentException("Shape already added: " + id);
+    }
+    // Checking if the color is valid
+    if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
+      throw new IllegalArgumentException("Invalid color values");
+    }
+    int handle = names.size();
+    storeShape(handle, shape, new int[]{x, y, width, height, r, g, b});
+    ShapeTimeline before = beforeEdit(handle, id);
+    names.add(id);
+    motions.add(new ArrayList<>());
+    timelines.add(null);
+    handles.put(id, handle);
+    invalidate(handle);
+    record(handle, id, before);
+  }
+
+  @Override
+  public synchronized void addMotion(IMotion motion, String id) throws IllegalArgumentException {
+    // If either ID or motion is null
+    if (motion == null || id == null) {
+      throw new IllegalArgumentException("Parameters null");
+    }
+    // Checks if the ID exists
+    addMotion(motion, handleOf(id));
+  }
+
+  @Override
+  public synchronized void addMotion(IMotion motion, int handle) throws IllegalArgumentException {
+    if (motion == null) {
+      throw new IllegalArgumentException("Parameters null");
+    }
+    checkHandle(handle);
+    ShapeTimeline before = beforeEdit(handle, names.get(handle));
+    if (batch == null) {
+      // Adds the motion to the list, sorted based on start time
+      MotionLists.addSorted(motions.get(handle), motion);
+    } else if (!MotionLists.addUnsorted(motions.get(handle), motion)) {
+      batch.markUnsorted(handle);
+    }
+    invalidate(handle);
+    spans.extend(handle, motion.getStart(), motion.getEnd());
+    record(handle, names.get(handle), before);
+  }
+
+  @Override
+  public synchronized void addMotions(List<IMotion> motions, int handle)
+      throws IllegalArgumentException {
+    if (motions == null || motions.contains(null)) {
+      throw new IllegalArgumentException("Parameters null");
+    }
+    checkHandle(handle);
+    ShapeTimeline before = beforeEdit(handle, names.get(handle));
+    if (batch == null) {
+      MotionLists.addAllSorted(this.motions.get(handle), motions);
+    } else {
+      this.motions.get(handle).addAll(motions);
+      batch.markUnsorted(handle);
+    }
+    invalidate(handle);
+    spans.update(handle, this.motions.get(handle));
+    record(handle, names.get(handle), before);
+  }
+
+  @Override
+  public String outputDescription() {
+    StringBuilder result = new StringBuilder();
+    writeDescription(result);
+    return result.toString();
+  }
+
+  @Override
+  public void writeDescription(Appendable out) throws IllegalArgumentException,
+      IllegalStateException {
+    sortPending();
+    DescriptionWriter writer = new DescriptionWriter(out);
+    for (int handle = 0; handle < names.size(); handle++) {
+      String id = names.get(handle);
+      if (id != null) {
+        writer.writeShape(id, typeOf(handle), originalOf(handle), motions.get(handle));
+      }
+    }
+    writer.flush();
+  }
+
+  @Override
+  public void resetShapes() {
+    // Shapes are computed from their timelines on every tick and never mutated, so there is
+    // nothing to reset
+  }
+
+  /**
+   * Discards the compiled timeline of the shape with the given handle and the published snapshot,
+   * so that they are rebuilt from the current motions when next needed, and moves on to a new
+   * version of the model. While a batch is open, the snapshot and version are left alone until it
+   * is committed.
+   *
+   * @param handle The handle of the shape that changed
+   */
+  private void invalidate(int handle) {
+    timelines.set(handle, null);
+    if (batch == null) {
+      snapshot = null;
+      version++;
+    }
+  }
+
+  @Override
+  public ModelSnapshot getSnapshot() {
+    ModelSnapshot result = snapshot;
+    if (result == null) {
+      result = publish();
+    }
+    return result;
+  }
+
+  /**
+   * Compiles every timeline that is out of date and publishes a snapshot of the current version.
+   * Synchronized with the edits, so a snapshot never sees an edit half done, and so that several
+   * threads reading at once do not compile at the same time.
+   *
+   * @return the published snapshot
+   */
+  private synchronized ModelSnapshot publish() {
+    if (snapshot != null) {
+      return snapshot;
+    }
+    String[] ids = names.toArray(new String[0]);
+    ShapeTimeline[] compiled = new ShapeTimeline[ids.length];
+    for (int handle = 0; handle < ids.length; handle++) {
+      if (ids[handle] != null) {
+        compiled[handle] = compiled(handle);
+      }
+    }
+    snapshot = new ModelSnapshot(version, bounds, ids, compiled, new ShapeIdIndex(handles),
+        spans.getStartTick(), spans.getFinalTick(), pool, parallelThreshold);
+    return snapshot;
+  }
+
+  /**
+   * Returns the compiled timeline of the shape with the given handle, compiling it first if it is
+   * out of date.
+   *
+   * @param handle The handle of the shape, which must exist
+   * @return the compiled timeline of the shape
+   */
+  private ShapeTimeline compiled(int handle) {
+    ShapeTimeline timeline = timelines.get(handle);
+    if (timeline == null) {
+      timeline = new ShapeTimeline(typeOf(handle), originalOf(handle), motions.get(handle));
+      timelines.set(handle, timeline);
+    }
+    return timeline;
+  }
+
+  @Override
+  public synchronized void removeShape(String id) throws IllegalArgumentException {
+    // Will check if the ID exists
+    int handle = handleOf(id);
+    ShapeTimeline before = beforeEdit(handle, id);
+    clear(handle, id);
+    record(handle, id, before);
+  }
+
+  // Clears the slots of the shape with the given handle, which is never given out again
+  private void clear(int handle, String id) {
+    handles.remove(id);
+    names.set(handle, null);
+    discardShape(handle);
+    motions.set(handle, null);
+    invalidate(handle);
+    spans.remove(handle);
+  }
+
+  @Override
+  public List<IColoredShape> getShapesAtTick(int tick) throws IllegalArgumentException {
+    return getSnapshot().getShapesAt(tick);
+  }
+
+  @Override
+  public List<IColoredShape> getVisibleShapesAtTick(int tick) throws IllegalArgumentException {
+    return getSnapshot().getVisibleShapesAt(tick);
+  }
+
+  @Override
+  public List<ShapeDelta> getChangesBetween(int fromTick, int toTick)
+      throws IllegalArgumentException {
+    return getSnapshot().getChangesBetween(fromTick, toTick);
+  }
+
+  @Override
+  public int getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Evaluates frames on the given pool, splitting the shapes across its threads, whenever a frame
+   * has at least the given number of shapes. Frames with fewer shapes, or every frame if the pool
+   * is null, are evaluated sequentially on the calling thread.
+   *
+   * @param pool The pool to evaluate frames on, or null to always evaluate sequentially
+   * @param threshold The number of shapes below which a frame is evaluated sequentially
+   * @throws IllegalArgumentException if the threshold is negative
+   */
+  public synchronized void setParallelEvaluation(ForkJoinPool pool, int threshold) {
+    if (threshold < 0) {
+      throw new IllegalArgumentException("Negative threshold");
+    }
+    this.pool = pool;
+    this.parallelThreshold = threshold;
+    if (batch == null) {
+      snapshot = null;
+    }
+  }
+
+  /**
+   * Returns the handle of the shape with the given ID.
+   *
+   * @param id The ID of the shape
+   * @return the handle of the shape
+   * @throws IllegalArgumentException if the shape does not exist
+   */
+  private int handleOf(String id) {
+    int handle = handles.get(id);
+    if (handle < 0) {
+      // Shape doesn't exist
+      throw new IllegalArgumentException("Shape ID does not correspond to a shape.");
+    }
+    return handle;
+  }
+
+  /**
+   * Checks if the handle has a shape corresponding to it.
+   *
+   * @param handle The handle of the shape
+   * @throws IllegalArgumentException if the shape does not exist
+   */
+  private void checkHandle(int handle) {
+    if (handle < 0 || handle >= names.size() || names.get(handle) == null) {
+      throw new IllegalArgumentException("Handle does not correspond to a shape.");
+    }
+  }
+
+  @Override
+  public int getHandle(String id) throws IllegalArgumentException {
+    if (id == null) {
+      throw new IllegalArgumentException("Null ID given");
+    }
+    return handleOf(id);
+  }
+
+  @Override
+  public String getName(int handle) throws IllegalArgumentException {
+    checkHandle(handle);
+    return names.get(handle);
+  }
+
+  @Override
+  public List<IROMotion> getMotionsForShape(String id) throws IllegalArgumentException {
+    if (id == null) {
+      throw new IllegalArgumentException("Null ID given");
+    }
+    return getMotionsForShape(handleOf(id));
+  }
+
+  @Override
+  public List<IROMotion> getMotionsForShape(int handle) throws IllegalArgumentException {
+    checkHandle(handle);
+    sortPending();
+    List<IROMotion> result = new ArrayList<>();
+    // Creates read-only motions
+    for (IMotion motion : motions.get(handle)) {
+      result.add(new ROMotionImpl(motion));
+    }
+    return result;
+  }
+
+  @Override
+  public int getFinalTick() {
+    return spans.getFinalTick();
+  }
+
+  @Override
+  public int getStartTick() {
+    return spans.getStartTick();
+  }
+
+  @Override
+  public List<String> getNames() {
+    List<String> result = new ArrayList<>(handles.size());
+    for (String id : names) {
+      if (id != null) {
+        result.add(id);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public IColoredShape getShape(String id) {
+    return getShape(handleOf(id));
+  }
+
+  @Override
+  public IColoredShape getShape(int handle) {
+    checkHandle(handle);
+    // Snapshots cannot be changed, so the original state stays safe
+    return ShapeTimeline.createShape(typeOf(handle), originalOf(handle), true);
+  }
+
+  @Override
+  public synchronized void addKeyframe(String id, String state, int tick, int... params) {
+    int handle = handleOf(id);
+    if (state == null) {
+      throw new IllegalArgumentException("Null state given");
+    }
+    ShapeTimeline before = beforeEdit(handle, id);
+    sortPending();
+    List<IMotion> motionList = motions.get(handle);
+    ShapeTimeline timeline = compiled(handle);
+    int[] original = originalOf(handle);
+    // Motions are edited in place, so the compiled timeline is out of date
+    invalidate(handle);
+    if (MotionLists.addKeyframe(motionList, timeline, original, state, tick, params)) {
+      storeShape(handle, timeline.getShapeType(), original);
+    }
+    spans.update(handle, motionList);
+    record(handle, id, before);
+  }
+
+  @Override
+  public synchronized void removeKeyframe(String id, int tick) {
+    int handle = handleOf(id);
+    if (tick < 0) {
+      throw new IllegalArgumentException("Tick less than zero.");
+    }
+    ShapeTimeline before = beforeEdit(handle, id);
+    sortPending();
+    ShapeTimeline timeline = compiled(handle);
+    int[] original = originalOf(handle);
+    // Motions are edited in place, so the compiled timeline is out of date
+    invalidate(handle);
+    if (MotionLists.removeKeyframe(motions.get(handle), timeline, original, tick)) {
+      storeShape(handle, timeline.getShapeType(), original);
+    }
+    // Removing the first or last keyframe shrinks the span of the shape
+    spans.update(handle, motions.get(handle));
+    record(handle, id, before);
+  }
+
+  @Override
+  public synchronized void setHistoryDepth(int depth) throws IllegalArgumentException {
+    history.setDepth(depth);
+  }
+
+  @Override
+  public synchronized boolean undo() throws IllegalStateException {
+    if (batch != null) {
+      throw new IllegalStateException("Cannot undo during a batch");
+    }
+    EditHistory.Edit edit = history.undo();
+    if (edit == null) {
+      return false;
+    }
+    restoreAll(edit.handles, edit.ids, edit.before);
+    return true;
+  }
+
+  @Override
+  public synchronized boolean redo() throws IllegalStateException {
+    if (batch != null) {
+      throw new IllegalStateException("Cannot redo during a batch");
+    }
+    EditHistory.Edit edit = history.redo();
+    if (edit == null) {
+      return false;
+    }
+    restoreAll(edit.handles, edit.ids, edit.after);
+    return true;
+  }
+
+  @Override
+  public synchronized long getHistoryBytes() {
+    return history.getBytes();
+  }
+
+  @Override
+  public synchronized void beginBatch() throws IllegalStateException {
+    if (batch != null) {
+      throw new IllegalStateException("Batch already begun");
+    }
+    // Readers keep the snapshot from before the batch until it is committed
+    publish();
+    batch = new EditBatch();
+  }
+
+  @Override
+  public synchronized void commitBatch() throws IllegalStateException {
+    if (batch == null) {
+      throw new IllegalStateException("No batch begun");
+    }
+    sortPending();
+    EditBatch done = batch;
+    batch = null;
+    int[] edited = done.getHandles();
+    if (history.isEnabled() && edited.length > 0) {
+      ShapeTimeline[] after = new ShapeTimeline[edited.length];
+      for (int k = 0; k < edited.length; k++) {
+        after[k] = names.get(edited[k]) == null ? null : compiled(edited[k]);
+      }
+      history.record(edited, done.getIds(), done.getBefores(), after);
+    }
+    snapshot = null;
+    if (edited.length > 0) {
+      version++;
+    }
+  }
+
+  @Override
+  public synchronized void rollbackBatch() throws IllegalStateException {
+    if (batch == null) {
+      throw new IllegalStateException("No batch begun");
+    }
+    // Restored while the batch is still open, so the model stays at the same version
+    restoreAll(batch.getHandles(), batch.getIds(), batch.getBefores());
+    batch = null;
+    // The bounds may have changed during the batch, so the snapshot is published again
+    snapshot = null;
+  }
+
+  // Sorts the motions of every shape that the open batch added motions to out of order
+  private synchronized void sortPending() {
+    if (batch == null) {
+      return;
+    }
+    for (int handle = batch.takeUnsorted(); handle >= 0; handle = batch.takeUnsorted()) {
+      if (names.get(handle) != null) {
+        MotionLists.sort(motions.get(handle));
+      }
+    }
+  }
+
+  /**
+   * Returns the timeline of the shape with the given handle from before it is edited, if it is
+   * needed to undo the edit. During a batch, the timeline is instead kept by the batch the first
+   * time the shape is edited, to roll back or undo the whole batch.
+   *
+   * @param handle The handle of the shape, which may not be given out yet
+   * @param id The ID of the shape
+   * @return the timeline of the shape, or null if it does not exist or is not needed
+   */
+  private ShapeTimeline beforeEdit(int handle, String id) {
+    boolean exists = handle < names.size() && names.get(handle) != null;
+    if (batch != null) {
+      if (!batch.isTouched(handle)) {
+        batch.touch(handle, id, exists ? compiled(handle) : null);
+      }
+      return null;
+    }
+    return exists && history.isEnabled() ? compiled(handle) : null;
+  }
+
+  /**
+   * Records an edit of the shape with the given handle, if edits are being recorded and no batch
+   * is open. The new timeline of the shape is compiled right away, so that the history and the
+   * next snapshot share it.
+   *
+   * @param handle The handle of the shape
+   * @param id The ID of the shape
+   * @param before The timeline of the shape before the edit, null if it did not exist
+   */
+  private void record(int handle, String id, ShapeTimeline before) {
+    if (batch == null && history.isEnabled()) {
+      history.record(handle, id, before, names.get(handle) == null ? null : compiled(handle));
+    }
+  }
+
+  /**
+   * Puts each of the given shapes back the way it was at the matching timeline. Shapes being
+   * removed go first, so that an ID another shape is about to take back is free by then.
+   *
+   * @param handles The handles of the shapes
+   * @param ids The IDs of the shapes
+   * @param timelines The timeline to go back to for each shape, null to remove it
+   */
+  private void restoreAll(int[] handles, String[] ids, ShapeTimeline[] timelines) {
+    for (int k = 0; k < handles.length; k++) {
+      if (timelines[k] == null) {
+        restore(handles[k], ids[k], null);
+      }
+    }
+    for (int k = 0; k < handles.length; k++) {
+      if (timelines[k] != null) {
+        restore(handles[k], ids[k], timelines[k]);
+      }
+    }
+  }
+
+  /**
+   * Puts the shape with the given handle back the way it was at the given timeline, which only
+   * rebuilds the motions of that one shape.
+   *
+   * @param handle The handle of the shape
+   * @param id The ID of the shape
+   * @param timeline The timeline to go back to, or null to remove the shape
+   */
+  private void restore(int handle, String id, ShapeTimeline timeline) {
+    if (timeline == null) {
+      // The shape may already be gone, and its ID taken by another shape
+      if (names.get(handle) != null) {
+        clear(handle, id);
+      }
+      return;
+    }
+    if (names.get(handle) == null) {
+      // The shape was removed, so it is added back under the same handle
+      handles.put(id, handle);
+      names.set(handle, id);
+    }
+    // Keyframe edits may have changed the original state along with the motions
+    IColoredShape shape = timeline.getOriginal();
+    int rgb = shape.getRGB();
+    storeShape(handle, shape.getShapeType(), new int[]{shape.getX(), shape.getY(),
+        shape.getWidth(), shape.getHeight(), (rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF});
+    motions.set(handle, timeline.toMotions());
+    invalidate(handle);
+    timelines.set(handle, timeline);
+    spans.update(handle, motions.get(handle));
+  }
+}
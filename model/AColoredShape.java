@@ -37,7 +37,13 @@ public abstract class AColoredShape implements IColoredShape {
 
   @Override
   public Color getColor() {
-    return new Color(this.color.getRed(), this.color.getGreen(), this.color.getBlue());
+    // Colors are immutable, so there is no need to copy it
+    return this.color;
+  }
+
+  @Override
+  public int getRGB() {
+    return this.color.getRGB() & 0xFFFFFF;
   }
 
   @Override
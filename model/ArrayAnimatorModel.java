@@ -0,0 +1,80 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+
+/**
+ * Represents an animator meant for scenes with a large number of shapes. Instead of keeping an
+ * object per shape, the original state of every shape is kept in dense arrays of primitives (x,
+ * y, width, height, packed RGB color, and type) indexed by the integer handle given to each shape
+ * when it is added. Evaluating a tick is a linear sweep over those handles.
+ *
+ * <p>Edits are synchronized and only change the state of the model. Readers on other threads go
+ * through immutable snapshots instead, which are published on the first read after an edit, or
+ * after a batch of edits is committed.</p>
+ */
+public final class ArrayAnimatorModel extends AAnimatorModel {
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final ShapeType[] TYPES = ShapeType.values();
+
+  private byte[] types; // Ordinal of the ShapeType of each shape
+  private int[] xs; // Original x coordinate of each shape
+  private int[] ys; // Original y coordinate of each shape
+  private int[] widths; // Original width of each shape
+  private int[] heights; // Original height of each shape
+  private int[] colors; // Original color of each shape, packed as 0xRRGGBB
+
+  /**
+   * Constructs an animator with no shapes.
+   */
+  public ArrayAnimatorModel() {
+    types = new byte[INITIAL_CAPACITY];
+    xs = new int[INITIAL_CAPACITY];
+    ys = new int[INITIAL_CAPACITY];
+    widths = new int[INITIAL_CAPACITY];
+    heights = new int[INITIAL_CAPACITY];
+    colors = new int[INITIAL_CAPACITY];
+  }
+
+  @Override
+  void storeShape(int handle, ShapeType type, int[] original) {
+    ensureCapacity(handle + 1);
+    types[handle] = (byte) type.ordinal();
+    xs[handle] = original[ShapeTimeline.X];
+    ys[handle] = original[ShapeTimeline.Y];
+    widths[handle] = original[ShapeTimeline.WIDTH];
+    heights[handle] = original[ShapeTimeline.HEIGHT];
+    colors[handle] = (original[ShapeTimeline.RED] << 16) | (original[ShapeTimeline.GREEN] << 8)
+        | original[ShapeTimeline.BLUE];
+  }
+
+  // Grows the arrays so that they can hold at least the given number of shapes
+  private void ensureCapacity(int capacity) {
+    if (capacity <= types.length) {
+      return;
+    }
+    int newCapacity = Math.max(capacity, types.length * 2);
+    types = Arrays.copyOf(types, newCapacity);
+    xs = Arrays.copyOf(xs, newCapacity);
+    ys = Arrays.copyOf(ys, newCapacity);
+    widths = Arrays.copyOf(widths, newCapacity);
+    heights = Arrays.copyOf(heights, newCapacity);
+    colors = Arrays.copyOf(colors, newCapacity);
+  }
+
+  @Override
+  void discardShape(int handle) {
+    // The slot is never given out again, so its values are simply left behind
+  }
+
+  @Override
+  ShapeType typeOf(int handle) {
+    return TYPES[types[handle]];
+  }
+
+  @Override
+  int[] originalOf(int handle) {
+    return new int[]{xs[handle], ys[handle], widths[handle], heights[handle],
+        (colors[handle] >> 16) & 0xFF, (colors[handle] >> 8) & 0xFF, colors[handle] & 0xFF};
+  }
+}
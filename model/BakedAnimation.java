@@ -0,0 +1,319 @@
+package cs3500.animator.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents an animation that was evaluated ahead of time and baked into a file, which is read
+ * back through memory mapping so that playback does no evaluation at all and several players can
+ * share the same cached pages of the file. Every tick from 0 to one past the final tick is stored
+ * as a frame of packed shapes, followed by the shapes in their original state and their IDs.
+ * Motions are not kept, so a baked animation can only be played, not described, which is why it is
+ * an {@code IROPlaybackModel} rather than an {@code IROAnimatorModel}.
+ *
+ * <p>The file starts with a header of {@code HEADER_INTS} integers: a magic number, the format
+ * version, the four bounds, the final tick, the number of frames, the number of shapes, and the
+ * start tick. Shapes are packed as in {@code PackedFrames}.</p>
+ */
+public final class BakedAnimation implements IROPlaybackModel {
+
+  private static final int MAGIC = 0x45584246; // "EXBF"
+  private static final int FORMAT = 1;
+  private static final int HEADER_INTS = 10;
+  private static final int HEADER_BYTES = HEADER_INTS * 4;
+
+  private final int[] bounds; // Bounding box for the canvas
+  private final int finalTick; // Final tick of the animation that was baked
+  private final int startTick; // Start tick of the animation that was baked
+  private final int frameCount; // Number of frames baked, not counting the original shapes
+  private final int shapeCount; // Number of shapes in every frame
+  private final int framesPerChunk; // Number of frames in each mapped chunk of the file
+  private final IntBuffer[] chunks; // Mapped chunks of the frames
+  private final List<String> names; // IDs of the shapes, in order
+  private final Map<String, Integer> indices; // Index of each ID
+
+  /**
+   * Opens the baked animation in the given file.
+   *
+   * @param file The file written by {@code bake}
+   * @throws IllegalArgumentException if the file is null or not a baked animation
+   * @throws IllegalStateException if the file cannot be read
+   */
+  public BakedAnimation(File file) {
+    if (file == null) {
+      throw new IllegalArgumentException("Null file given");
+    }
+    try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+      FileChannel channel = input.getChannel();
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // Reads until the header is full or the file ends
+      }
+      header.flip();
+      if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC
+          || header.getInt() != FORMAT) {
+        throw new IllegalArgumentException("Not a baked animation: " + file);
+      }
+      bounds = new int[]{header.getInt(), header.getInt(), header.getInt(), header.getInt()};
+      finalTick = header.getInt();
+      frameCount = header.getInt();
+      shapeCount = header.getInt();
+      startTick = header.getInt();
+      long frameBytes = 4L * shapeCount * PackedFrames.FIELDS;
+      // A single mapping is limited to 2GB, so the frames are mapped in chunks of whole frames,
+      // counting the original shapes as one more frame at the end
+      int totalFrames = frameCount + 1;
+      if (frameCount < 1 || shapeCount < 0
+          || channel.size() < HEADER_BYTES + totalFrames * frameBytes) {
+        throw new IllegalArgumentException("Truncated baked animation: " + file);
+      }
+      if (frameBytes > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Frames too large to map: " + file);
+      }
+      framesPerChunk = frameBytes == 0 ? totalFrames
+          : (int) Math.min(totalFrames, Integer.MAX_VALUE / frameBytes);
+      chunks = new IntBuffer[frameBytes == 0 ? 0 : (totalFrames + framesPerChunk - 1)
+          / framesPerChunk];
+      for (int c = 0; c < chunks.length; c++) {
+        int frames = Math.min(framesPerChunk, totalFrames - c * framesPerChunk);
+        long position = HEADER_BYTES + (long) c * framesPerChunk * frameBytes;
+        chunks[c] = channel.map(MapMode.READ_ONLY, position, frames * frameBytes).asIntBuffer();
+      }
+      // IDs follow the frames
+      channel.position(HEADER_BYTES + totalFrames * frameBytes);
+      DataInputStream trailer = new DataInputStream(Channels.newInputStream(channel));
+      names = new ArrayList<>(shapeCount);
+      indices = new HashMap<>();
+      for (int k = 0; k < shapeCount; k++) {
+        String id = trailer.readUTF();
+        names.add(id);
+        indices.put(id, k);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read baked animation: " + file);
+    }
+  }
+
+  /**
+   * Evaluates every tick of the given animation from 0 to one past its final tick and writes the
+   * frames into the given file, to be played back with {@code new BakedAnimation(file)}.
+   *
+   * @param model The animation to bake
+   * @param file The file to write, which is overwritten if it exists
+   * @throws IllegalArgumentException if either parameter is null
+   * @throws IllegalStateException if the bounds of the animation are not declared or the file
+   *         cannot be written
+   */
+  public static void bake(IROPlaybackModel model, File file) {
+    if (model == null || file == null) {
+      throw new IllegalArgumentException("Null parameters");
+    }
+    // Every frame is baked from the same snapshot, even if the model is edited meanwhile
+    IROPlaybackModel snapshot = model.getSnapshot();
+    int[] bounds = snapshot.getBounds();
+    int finalTick = snapshot.getFinalTick();
+    List<String> names = snapshot.getNames();
+    // The tick after the final one is baked as well, as that is where shapes disappear
+    int frameCount = finalTick + 2;
+    try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+      output.setLength(0);
+      FileChannel channel = output.getChannel();
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      header.putInt(MAGIC).putInt(FORMAT).putInt(bounds[0]).putInt(bounds[1]).putInt(bounds[2])
+          .putInt(bounds[3]).putInt(finalTick).putInt(frameCount).putInt(names.size())
+          .putInt(snapshot.getStartTick());
+      header.flip();
+      writeFully(channel, header);
+
+      int[] frame = PackedFrames.pack(snapshot.getShapesAt(0));
+      ByteBuffer buffer = ByteBuffer.allocate(frame.length * 4);
+      for (int tick = 0; tick < frameCount; tick++) {
+        // Each frame only differs from the one before by the shapes that changed
+        if (tick > 0) {
+          for (ShapeDelta change : snapshot.getChangesBetween(tick - 1, tick)) {
+            PackedFrames.set(frame, change.getIndex(), change.getShape());
+          }
+        }
+        writeFrame(channel, buffer, frame);
+      }
+      int[] originals = new int[names.size() * PackedFrames.FIELDS];
+      for (int k = 0; k < names.size(); k++) {
+        PackedFrames.set(originals, k, snapshot.getShape(names.get(k)));
+      }
+      writeFrame(channel, buffer, originals);
+
+      DataOutputStream trailer = new DataOutputStream(Channels.newOutputStream(channel));
+      for (String id : names) {
+        trailer.writeUTF(id);
+      }
+      trailer.flush();
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not write baked animation: " + file);
+    }
+  }
+
+  // Writes a packed frame through the given buffer
+  private static void writeFrame(FileChannel channel, ByteBuffer buffer, int[] frame)
+      throws IOException {
+    buffer.clear();
+    buffer.asIntBuffer().put(frame);
+    writeFully(channel, buffer);
+  }
+
+  // Writes every remaining byte of the buffer
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  // Chunk holding the given frame, where frameCount is the frame of original shapes
+  private IntBuffer chunkOf(int frame) {
+    return chunks[frame / framesPerChunk];
+  }
+
+  // Offset of the first integer of a shape within the chunk of its frame
+  private int offsetOf(int frame, int index) {
+    return ((frame % framesPerChunk) * shapeCount + index) * PackedFrames.FIELDS;
+  }
+
+  // Frame to read for the given tick; ticks past the last frame look the same as it
+  private int frameAt(int tick) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Invalid tick, less than zero");
+    }
+    return Math.min(tick, frameCount - 1);
+  }
+
+  @Override
+  public List<IColoredShape> getShapesAt(int tick) throws IllegalArgumentException {
+    int frame = frameAt(tick);
+    List<IColoredShape> result = new ArrayList<>(shapeCount);
+    for (int k = 0; k < shapeCount; k++) {
+      result.add(PackedFrames.get(chunkOf(frame), offsetOf(frame, k)));
+    }
+    return result;
+  }
+
+  @Override
+  public List<IColoredShape> getVisibleShapesAt(int tick) throws IllegalArgumentException {
+    int frame = frameAt(tick);
+    List<IColoredShape> result = new ArrayList<>();
+    for (int k = 0; k < shapeCount; k++) {
+      if (PackedFrames.isVisible(chunkOf(frame), offsetOf(frame, k))) {
+        result.add(PackedFrames.get(chunkOf(frame), offsetOf(frame, k)));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public List<ShapeDelta> getIndexedVisibleShapesAt(int tick) throws IllegalArgumentException {
+    int frame = frameAt(tick);
+    List<ShapeDelta> result = new ArrayList<>();
+    for (int k = 0; k < shapeCount; k++) {
+      if (PackedFrames.isVisible(chunkOf(frame), offsetOf(frame, k))) {
+        result.add(new ShapeDelta(k, PackedFrames.get(chunkOf(frame), offsetOf(frame, k))));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public List<ShapeDelta> getChangesBetween(int fromTick, int toTick)
+      throws IllegalArgumentException {
+    int from = frameAt(fromTick);
+    int to = frameAt(toTick);
+    List<ShapeDelta> result = new ArrayList<>();
+    if (from == to) {
+      return result;
+    }
+    IntBuffer before = chunkOf(from);
+    IntBuffer after = chunkOf(to);
+    for (int k = 0; k < shapeCount; k++) {
+      int oldBase = offsetOf(from, k);
+      int newBase = offsetOf(to, k);
+      for (int f = 0; f < PackedFrames.FIELDS; f++) {
+        if (before.get(oldBase + f) != after.get(newBase + f)) {
+          result.add(new ShapeDelta(k, PackedFrames.get(after, newBase)));
+          break;
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public int getVersion() {
+    // Baked animations are never edited
+    return 0;
+  }
+
+  @Override
+  public int getHandle(String id) throws IllegalArgumentException {
+    // The handle of a baked shape is its index in the frames
+    Integer index = id == null ? null : indices.get(id);
+    if (index == null) {
+      throw new IllegalArgumentException("Shape ID does not correspond to a shape.");
+    }
+    return index;
+  }
+
+  @Override
+  public int[] getBounds() throws IllegalStateException {
+    return Arrays.copyOf(bounds, bounds.length);
+  }
+
+  @Override
+  public int getFinalTick() {
+    return this.finalTick;
+  }
+
+  @Override
+  public int getStartTick() {
+    return this.startTick;
+  }
+
+  @Override
+  public List<String> getNames() {
+    return new ArrayList<>(names);
+  }
+
+  @Override
+  public IROPlaybackModel loop() {
+    // Frames never change while playing, so there is nothing to reset
+    return this;
+  }
+
+  @Override
+  public IROPlaybackModel getSnapshot() {
+    // Frames never change, so the animation is its own snapshot
+    return this;
+  }
+
+  @Override
+  public IColoredShape getShape(String id) {
+    return getShape(getHandle(id));
+  }
+
+  @Override
+  public IColoredShape getShape(int handle) {
+    if (handle < 0 || handle >= shapeCount) {
+      throw new IllegalArgumentException("Handle does not correspond to a shape.");
+    }
+    return PackedFrames.get(chunkOf(frameCount), offsetOf(frameCount, handle));
+  }
+}
@@ -0,0 +1,215 @@
+package cs3500.animator.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.List;
+
+/**
+ * Writes the textual description of shapes and their motions to an {@code Appendable} one shape
+ * at a time, so that describing an animation never holds more than a small buffer of its text.
+ * Numbers are formatted straight into the buffer and states are tracked in a reused array, so
+ * writing a motion creates no objects. Not thread safe, a writer is meant for a single
+ * description.
+ */
+final class DescriptionWriter {
+
+  private static final int BUFFER_SIZE = 8192;
+  private static final int MAX_NUMBER_LENGTH = 11; // Length of the longest int, "-2147483648"
+  private static final String[] TYPE_NAMES = typeNames();
+
+  private final Appendable out; // Output the description is written to
+  private final char[] buffer; // Text not yet written to the output
+  private final CharBuffer chars; // View of the buffer for outputs other than writers and builders
+  private final int[] state; // State of the shape being described, reused between shapes
+  private int length = 0; // Number of characters in the buffer
+
+  /**
+   * Constructs a writer that describes shapes onto the given output.
+   *
+   * @param out The output to write to
+   * @throws IllegalArgumentException if the output is null
+   */
+  DescriptionWriter(Appendable out) {
+    if (out == null) {
+      throw new IllegalArgumentException("Null Appendable given");
+    }
+    this.out = out;
+    this.buffer = new char[BUFFER_SIZE];
+    this.chars = CharBuffer.wrap(buffer);
+    this.state = new int[ShapeTimeline.CHANNELS];
+  }
+
+  /**
+   * Describes the given shape: a line declaring it, followed by a line for each of its motions
+   * with the state of the shape at the start and at the end of the motion. Each motion starts
+   * where the previous one left off, beginning with the original state of the shape.
+   *
+   * @param id The ID of the shape
+   * @param type The type of the shape
+   * @param initial The original state, in the order of x, y, width, height, red, green, blue
+   * @param motions The motions of the shape, sorted by start time
+   * @throws IllegalStateException if the output cannot be written to
+   */
+  void writeShape(String id, ShapeType type, int[] initial, List<IMotion> motions) {
+    appendHeader(id, type);
+    System.arraycopy(initial, 0, state, 0, ShapeTimeline.CHANNELS);
+    for (IMotion motion : motions) {
+      appendMotion(id, motion.getStart());
+      appendState();
+      appendEnd(motion.getEnd());
+      for (int s = 0; s < motion.getStateCount(); s++) {
+        ShapeTimeline.applyState(motion.getState(s), state);
+      }
+      appendState();
+      append('\n');
+    }
+  }
+
+  /**
+   * Describes the given shape from its compiled timeline, exactly as {@code writeShape} describes
+   * it from the motions the timeline was compiled from.
+   *
+   * @param id The ID of the shape
+   * @param timeline The compiled timeline of the shape
+   * @throws IllegalStateException if the output cannot be written to
+   */
+  void writeTimeline(String id, ShapeTimeline timeline) {
+    appendHeader(id, timeline.getShapeType());
+    for (int k = 0; k < timeline.size(); k++) {
+      appendMotion(id, timeline.getStart(k));
+      for (int c = 0; c < ShapeTimeline.CHANNELS; c++) {
+        state[c] = timeline.startValue(k, c);
+      }
+      appendState();
+      appendEnd(timeline.getEnd(k));
+      for (int c = 0; c < ShapeTimeline.CHANNELS; c++) {
+        state[c] = timeline.endValue(k, c);
+      }
+      appendState();
+      append('\n');
+    }
+  }
+
+  /**
+   * Writes everything still buffered to the output. The output itself is not flushed.
+   *
+   * @throws IllegalStateException if the output cannot be written to
+   */
+  void flush() {
+    if (length == 0) {
+      return;
+    }
+    try {
+      // Writers and builders take the characters directly, anything else gets a view of them
+      if (out instanceof Writer) {
+        ((Writer) out).write(buffer, 0, length);
+      } else if (out instanceof StringBuilder) {
+        ((StringBuilder) out).append(buffer, 0, length);
+      } else {
+        out.append(chars, 0, length);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("IOException caught, issue appending onto Appendable");
+    }
+    length = 0;
+  }
+
+  /**
+   * Returns the name a type of shape is described by.
+   *
+   * @param type The type of shape
+   * @return the name of the type
+   */
+  static String typeName(ShapeType type) {
+    return TYPE_NAMES[type.ordinal()];
+  }
+
+  // Appends the line declaring a shape
+  private void appendHeader(String id, ShapeType type) {
+    append("shape ");
+    append(id);
+    append(' ');
+    append(TYPE_NAMES[type.ordinal()]);
+    append('\n');
+  }
+
+  // Appends the start of a motion line, up to its starting state
+  private void appendMotion(String id, int start) {
+    append("motion ");
+    append(id);
+    append(' ');
+    append(start);
+    append(' ');
+  }
+
+  // Appends the end tick of a motion, between its starting and ending states
+  private void appendEnd(int end) {
+    append("\t\t");
+    append(end);
+    append(' ');
+  }
+
+  // Appends the current state, separated by spaces
+  private void appendState() {
+    for (int c = 0; c < ShapeTimeline.CHANNELS; c++) {
+      if (c > 0) {
+        append(' ');
+      }
+      append(state[c]);
+    }
+  }
+
+  // Appends the given text, flushing the buffer whenever it fills up
+  private void append(String s) {
+    int start = 0;
+    while (start < s.length()) {
+      if (length == buffer.length) {
+        flush();
+      }
+      int end = Math.min(s.length(), start + buffer.length - length);
+      s.getChars(start, end, buffer, length);
+      length += end - start;
+      start = end;
+    }
+  }
+
+  // Appends a single character
+  private void append(char c) {
+    if (length == buffer.length) {
+      flush();
+    }
+    buffer[length++] = c;
+  }
+
+  // Appends the decimal digits of the given number
+  private void append(int value) {
+    if (length + MAX_NUMBER_LENGTH > buffer.length) {
+      flush();
+    }
+    // Digits are computed on the negative value, which also covers Integer.MIN_VALUE
+    int remaining = value < 0 ? value : -value;
+    int digits = 1;
+    for (int rest = remaining / 10; rest != 0; rest /= 10) {
+      digits++;
+    }
+    if (value < 0) {
+      buffer[length++] = '-';
+    }
+    for (int k = length + digits - 1; k >= length; k--) {
+      buffer[k] = (char) ('0' - remaining % 10);
+      remaining /= 10;
+    }
+    length += digits;
+  }
+
+  // Names of the shape types as they appear in descriptions, indexed by ordinal
+  private static String[] typeNames() {
+    ShapeType[] types = ShapeType.values();
+    String[] names = new String[types.length];
+    for (int k = 0; k < types.length; k++) {
+      names[k] = types[k].toString().toLowerCase();
+    }
+    return names;
+  }
+}
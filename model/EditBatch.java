@@ -0,0 +1,116 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Represents a batch of edits being made to a model. The model applies each edit to its own state
+ * as usual, but holds back everything done once per edit otherwise: publishing a snapshot, moving
+ * on to a new version, recording the edit for undo, and sorting the motions of a shape. The batch
+ * keeps track of the shapes it touched and their timelines from before it began, so that all of
+ * that is done once per shape when the batch is committed, or undone when it is rolled back.
+ */
+final class EditBatch {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final BitSet touched; // If each handle has been edited during the batch
+  private final BitSet unsorted; // If motions were added out of order to each handle
+  private int[] handles; // Handles edited during the batch, in the order first edited
+  private String[] ids; // ID of each handle edited
+  private ShapeTimeline[] befores; // Timeline of each handle before the batch, null if none
+  private int size = 0; // Number of handles edited
+
+  /**
+   * Constructs a batch that has not touched any shapes yet.
+   */
+  EditBatch() {
+    touched = new BitSet();
+    unsorted = new BitSet();
+    handles = new int[INITIAL_CAPACITY];
+    ids = new String[INITIAL_CAPACITY];
+    befores = new ShapeTimeline[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Returns if the shape with the given handle has been edited during the batch.
+   *
+   * @param handle The handle of the shape
+   * @return true if the shape has been touched
+   */
+  boolean isTouched(int handle) {
+    return touched.get(handle);
+  }
+
+  /**
+   * Records that the given shape is about to be edited for the first time during the batch.
+   *
+   * @param handle The handle of the shape
+   * @param id The ID of the shape
+   * @param before The timeline of the shape before the batch, null if it did not exist
+   */
+  void touch(int handle, String id, ShapeTimeline before) {
+    if (size == handles.length) {
+      handles = Arrays.copyOf(handles, size * 2);
+      ids = Arrays.copyOf(ids, size * 2);
+      befores = Arrays.copyOf(befores, size * 2);
+    }
+    touched.set(handle);
+    handles[size] = handle;
+    ids[size] = id;
+    befores[size] = before;
+    size++;
+  }
+
+  /**
+   * Records that a motion was added to the given shape out of order, so that its motions need to
+   * be sorted before they are next used.
+   *
+   * @param handle The handle of the shape
+   */
+  void markUnsorted(int handle) {
+    unsorted.set(handle);
+  }
+
+  /**
+   * Returns a shape whose motions need to be sorted, and clears that mark.
+   *
+   * @return the handle of a shape motions were added to out of order since it was last sorted, or
+   *         -1 if there is none
+   */
+  int takeUnsorted() {
+    int handle = unsorted.nextSetBit(0);
+    if (handle >= 0) {
+      unsorted.clear(handle);
+    }
+    return handle;
+  }
+
+  /**
+   * Returns the handles of the shapes edited during the batch, in the order first edited.
+   *
+   * @return a new array of the handles
+   */
+  int[] getHandles() {
+    return Arrays.copyOf(handles, size);
+  }
+
+  /**
+   * Returns the IDs of the shapes edited during the batch, in the same order as the handles.
+   *
+   * @return a new array of the IDs
+   */
+  String[] getIds() {
+    return Arrays.copyOf(ids, size);
+  }
+
+  /**
+   * Returns the timelines of the shapes edited during the batch from before it began, in the same
+   * order as the handles.
+   *
+   * @return a new array of the timelines, null for shapes that did not exist
+   */
+  ShapeTimeline[] getBefores() {
+    return Arrays.copyOf(befores, size);
+  }
+}
@@ -0,0 +1,191 @@
+package cs3500.animator.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Represents the history of edits made to the shapes of a model, for undo and redo. An edit is
+ * recorded as the compiled timelines of the shapes it changed, from before and after the edit;
+ * most edits change a single shape, while a committed batch may change many. Timelines are
+ * immutable, so one timeline is shared by the edit that produced it, the edit that replaced it,
+ * and the model itself, and undoing an edit only swaps the shapes it changed back to earlier
+ * timelines. At most a given number of edits are kept, dropping the oldest
+ * first, and the memory held by the timelines they keep is tracked.
+ */
+final class EditHistory {
+
+  private final Deque<Edit> undone; // Edits that can be undone, most recent first
+  private final Deque<Edit> redone; // Edits that can be redone, most recently undone first
+  private final Map<ShapeTimeline, Integer> retained; // Number of edits holding each timeline
+  private int depth = 0; // Most edits that can be undone, 0 if edits are not recorded
+  private long bytes = 0; // Estimated bytes of the timelines held by the history
+
+  /**
+   * Constructs an empty history that records no edits until given a depth.
+   */
+  EditHistory() {
+    undone = new ArrayDeque<>();
+    redone = new ArrayDeque<>();
+    retained = new IdentityHashMap<>();
+  }
+
+  /**
+   * Returns if edits are recorded.
+   *
+   * @return true if the depth is above 0
+   */
+  boolean isEnabled() {
+    return depth > 0;
+  }
+
+  /**
+   * Sets the most edits that can be undone, dropping the oldest edits beyond it.
+   *
+   * @param depth The most edits to keep, where 0 stops recording and clears the history
+   * @throws IllegalArgumentException if the depth is negative
+   */
+  void setDepth(int depth) {
+    if (depth < 0) {
+      throw new IllegalArgumentException("Negative history depth");
+    }
+    this.depth = depth;
+    while (undone.size() > depth) {
+      release(undone.removeLast());
+    }
+    if (depth == 0) {
+      while (!redone.isEmpty()) {
+        release(redone.removeFirst());
+      }
+    }
+  }
+
+  /**
+   * Records an edit of the given shape, which cannot be redone past anymore.
+   *
+   * @param handle The handle of the shape
+   * @param id The ID of the shape
+   * @param before The timeline of the shape before the edit, null if it did not exist
+   * @param after The timeline of the shape after the edit, null if it was removed
+   */
+  void record(int handle, String id, ShapeTimeline before, ShapeTimeline after) {
+    record(new int[]{handle}, new String[]{id}, new ShapeTimeline[]{before},
+        new ShapeTimeline[]{after});
+  }
+
+  /**
+   * Records an edit of several shapes as a single edit, which cannot be redone past anymore. The
+   * arrays are kept, not copied, and are matched up by index.
+   *
+   * @param handles The handles of the shapes
+   * @param ids The IDs of the shapes
+   * @param before The timeline of each shape before the edit, null if it did not exist
+   * @param after The timeline of each shape after the edit, null if it was removed
+   */
+  void record(int[] handles, String[] ids, ShapeTimeline[] before, ShapeTimeline[] after) {
+    if (!isEnabled()) {
+      return;
+    }
+    while (!redone.isEmpty()) {
+      release(redone.removeFirst());
+    }
+    Edit edit = new Edit(handles, ids, before, after);
+    retain(edit);
+    undone.addFirst(edit);
+    if (undone.size() > depth) {
+      release(undone.removeLast());
+    }
+  }
+
+  /**
+   * Moves the most recent edit over to be redone.
+   *
+   * @return the edit to undo, or null if there is none
+   */
+  Edit undo() {
+    Edit edit = undone.pollFirst();
+    if (edit != null) {
+      redone.addFirst(edit);
+    }
+    return edit;
+  }
+
+  /**
+   * Moves the most recently undone edit back over to be undone.
+   *
+   * @return the edit to redo, or null if there is none
+   */
+  Edit redo() {
+    Edit edit = redone.pollFirst();
+    if (edit != null) {
+      undone.addFirst(edit);
+    }
+    return edit;
+  }
+
+  /**
+   * Returns the estimated number of bytes held by the history. Timelines shared by several edits
+   * are only counted once.
+   *
+   * @return the estimated bytes of the timelines held
+   */
+  long getBytes() {
+    return bytes;
+  }
+
+  // Counts the timelines of a newly kept edit
+  private void retain(Edit edit) {
+    for (int k = 0; k < edit.handles.length; k++) {
+      retain(edit.before[k]);
+      retain(edit.after[k]);
+    }
+  }
+
+  // Counts a timeline held by one more edit
+  private void retain(ShapeTimeline timeline) {
+    if (timeline != null && retained.merge(timeline, 1, Integer::sum) == 1) {
+      bytes += timeline.estimatedBytes();
+    }
+  }
+
+  // Stops counting the timelines of a dropped edit
+  private void release(Edit edit) {
+    for (int k = 0; k < edit.handles.length; k++) {
+      release(edit.before[k]);
+      release(edit.after[k]);
+    }
+  }
+
+  // Counts a timeline held by one less edit
+  private void release(ShapeTimeline timeline) {
+    if (timeline == null) {
+      return;
+    }
+    int count = retained.get(timeline);
+    if (count == 1) {
+      retained.remove(timeline);
+      bytes -= timeline.estimatedBytes();
+    } else {
+      retained.put(timeline, count - 1);
+    }
+  }
+
+  /**
+   * Represents a single recorded edit of one or more shapes, matched up by index.
+   */
+  static final class Edit {
+
+    final int[] handles; // Handle of each shape
+    final String[] ids; // ID of each shape
+    final ShapeTimeline[] before; // Timelines before the edit, null if the shape did not exist
+    final ShapeTimeline[] after; // Timelines after the edit, null if the shape was removed
+
+    private Edit(int[] handles, String[] ids, ShapeTimeline[] before, ShapeTimeline[] after) {
+      this.handles = handles;
+      this.ids = ids;
+      this.before = before;
+      this.after = after;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package cs3500.animator.model;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Represents a cache of evaluated frames, so that ticks revisited while scrubbing or looping do not
+ * have to be evaluated again. Frames are stored packed as {@code PackedFrames.FIELDS} integers per
+ * shape, and the least recently used frames are evicted once the cache holds more than its budget
+ * of bytes.
+ * Every frame is tied to the version of the model it was evaluated from, and the whole cache is
+ * dropped once the model moves on to another version.
+ */
+final class FrameCache {
+
+  private static final long FRAME_OVERHEAD = 64; // Estimated bytes used per frame besides its data
+
+  private final long budget; // Most bytes the cached frames may take up
+  private final LinkedHashMap<Integer, int[]> frames; // Packed frames, least recently used first
+  private long used = 0; // Estimated bytes taken up by the cached frames
+  private int version; // Version of the model the cached frames were evaluated from
+  private long hits = 0;
+  private long misses = 0;
+
+  /**
+   * Constructs an empty cache that holds frames up to the given number of bytes.
+   *
+   * @param budget The most bytes the cached frames may take up, where 0 caches nothing
+   * @throws IllegalArgumentException if the budget is negative
+   */
+  FrameCache(long budget) {
+    if (budget < 0) {
+      throw new IllegalArgumentException("Negative cache budget");
+    }
+    this.budget = budget;
+    this.frames = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Returns the shapes of the given tick, evaluating them from the given snapshot only if the frame
+   * is not already cached for the snapshot's version.
+   *
+   * @param snapshot The snapshot of the model to evaluate frames from
+   * @param tick The tick to get the shapes at
+   * @return a new list of the shapes at the tick
+   */
+  synchronized List<IColoredShape> get(ModelSnapshot snapshot, int tick) {
+    int current = snapshot.getVersion();
+    if (current != version) {
+      clear();
+      version = current;
+    }
+    int[] packed = frames.get(tick);
+    if (packed != null) {
+      hits++;
+      return unpack(packed);
+    }
+    misses++;
+    List<IColoredShape> shapes = snapshot.getShapesAt(tick);
+    put(tick, PackedFrames.pack(shapes));
+    return shapes;
+  }
+
+  /**
+   * Returns the number of frames returned from the cache.
+   *
+   * @return the number of hits
+   */
+  synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of frames that had to be evaluated.
+   *
+   * @return the number of misses
+   */
+  synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Drops every cached frame.
+   */
+  synchronized void clear() {
+    frames.clear();
+    used = 0;
+  }
+
+  // Caches the given frame, evicting the least recently used ones until it fits in the budget
+  private void put(int tick, int[] packed) {
+    long size = sizeOf(packed);
+    if (size > budget) {
+      return;
+    }
+    Iterator<int[]> iterator = frames.values().iterator();
+    while (used + size > budget && iterator.hasNext()) {
+      used -= sizeOf(iterator.next());
+      iterator.remove();
+    }
+    frames.put(tick, packed);
+    used += size;
+  }
+
+  // Estimated number of bytes taken up by a cached frame
+  private static long sizeOf(int[] packed) {
+    return FRAME_OVERHEAD + 4L * packed.length;
+  }
+
+  // Creates new shapes from a packed frame
+  private static List<IColoredShape> unpack(int[] packed) {
+    IntBuffer ints = IntBuffer.wrap(packed);
+    List<IColoredShape> shapes = new ArrayList<>(packed.length / PackedFrames.FIELDS);
+    for (int base = 0; base < packed.length; base += PackedFrames.FIELDS) {
+      shapes.add(PackedFrames.get(ints, base));
+    }
+    return shapes;
+  }
+}
@@ -0,0 +1,77 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Represents the evaluation of the shapes of a frame, which may be split across the threads of a
+ * {@code ForkJoinPool}. Every task writes the shapes of its own range of positions into a shared
+ * array, so the shapes keep the order of the positions no matter which thread evaluated them.
+ */
+final class FrameTask extends RecursiveAction {
+
+  private static final long serialVersionUID = 1L;
+  private static final int MIN_LEAF_SIZE = 1024; // Fewest shapes worth giving a task of its own
+
+  private final transient TimelineIndex index; // Timelines of the shapes
+  private final int[] positions; // Positions to evaluate, null for every position
+  private final int tick; // Tick to evaluate at
+  private final transient IColoredShape[] result; // Shapes evaluated, in the order of the positions
+  private final int from; // First index into the positions to evaluate
+  private final int to; // Index after the last one to evaluate
+  private final int leafSize; // Number of shapes below which the task is not split
+
+  private FrameTask(TimelineIndex index, int[] positions, int tick, IColoredShape[] result,
+      int from, int to, int leafSize) {
+    this.index = index;
+    this.positions = positions;
+    this.tick = tick;
+    this.result = result;
+    this.from = from;
+    this.to = to;
+    this.leafSize = leafSize;
+  }
+
+  /**
+   * Evaluates the shapes at the given positions of the index at the given tick. Runs on the given
+   * pool if there are at least as many shapes as the threshold, and sequentially otherwise.
+   *
+   * @param index Timelines of the shapes
+   * @param positions Positions to evaluate, or null for every position in the index
+   * @param tick Tick to evaluate at
+   * @param pool Pool to evaluate on, or null to always evaluate sequentially
+   * @param threshold Number of shapes below which the evaluation stays sequential
+   * @return List of the evaluated shapes, in the order of the positions
+   */
+  static List<IColoredShape> evaluate(TimelineIndex index, int[] positions, int tick,
+      ForkJoinPool pool, int threshold) {
+    int count = positions == null ? index.size() : positions.length;
+    IColoredShape[] result = new IColoredShape[count];
+    if (pool == null || count < threshold) {
+      new FrameTask(index, positions, tick, result, 0, count, count).compute();
+    } else {
+      // Gives every thread a few tasks so that uneven timelines still balance out
+      int leafSize = Math.max(MIN_LEAF_SIZE, count / (pool.getParallelism() * 4));
+      pool.invoke(new FrameTask(index, positions, tick, result, 0, count, leafSize));
+    }
+    return new ArrayList<>(Arrays.asList(result));
+  }
+
+  @Override
+  protected void compute() {
+    if (to - from <= leafSize) {
+      int[] values = new int[ShapeTimeline.CHANNELS];
+      for (int k = from; k < to; k++) {
+        int position = positions == null ? k : positions[k];
+        result[k] = index.get(position).shapeAt(tick, values);
+      }
+      return;
+    }
+    int middle = (from + to) >>> 1;
+    invokeAll(new FrameTask(index, positions, tick, result, from, middle, leafSize),
+        new FrameTask(index, positions, tick, result, middle, to, leafSize));
+  }
+}
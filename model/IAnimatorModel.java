@@ -36,6 +36,47 @@ public interface IAnimatorModel {
    */
   void addMotion(IMotion motion, String id) throws IllegalArgumentException;
 
+  /**
+   * Adds a path of motion to the shape with the corresponding handle.
+   *
+   * @param motion Motion path to add to the shape
+   * @param handle Handle of the shape to add the motion to, as given by {@code getHandle}
+   * @throws IllegalArgumentException if the motion is null or the handle does not exist
+   */
+  void addMotion(IMotion motion, int handle) throws IllegalArgumentException;
+
+  /**
+   * Adds several paths of motion to the shape with the corresponding handle at once. The motions
+   * may be given in any order, and the motions of the shape are only sorted once, which makes
+   * this the faster way to load many motions.
+   *
+   * @param motions Motion paths to add to the shape
+   * @param handle Handle of the shape to add the motions to, as given by {@code getHandle}
+   * @throws IllegalArgumentException if the list or any motion is null or the handle does not
+   *                                  exist
+   */
+  void addMotions(List<IMotion> motions, int handle) throws IllegalArgumentException;
+
+  /**
+   * Returns the handle of the shape with the given ID. Each shape is given an integer handle when
+   * it is added, which stays the same until the shape is removed and is never reused, so that
+   * repeated calls need not look up the ID again.
+   *
+   * @param id The ID of the shape
+   * @return the handle of the shape
+   * @throws IllegalArgumentException if the ID is null or does not exist
+   */
+  int getHandle(String id) throws IllegalArgumentException;
+
+  /**
+   * Returns the ID of the shape with the given handle.
+   *
+   * @param handle The handle of the shape
+   * @return the ID of the shape
+   * @throws IllegalArgumentException if the handle does not exist
+   */
+  String getName(int handle) throws IllegalArgumentException;
+
   /**
    * Creates a textual description of all the shapes and their corresponding motion path according
    * to time.
@@ -44,6 +85,16 @@ public interface IAnimatorModel {
    */
   String outputDescription();
 
+  /**
+   * Writes the same description as {@code outputDescription()} onto the given output, one shape at
+   * a time, without building the whole description in memory.
+   *
+   * @param out The output to write the description to
+   * @throws IllegalArgumentException if the output is null
+   * @throws IllegalStateException if the output cannot be written to
+   */
+  void writeDescription(Appendable out) throws IllegalArgumentException, IllegalStateException;
+
   /**
    * Removes the shape with the specified ID. Will also remove its associated motions if any.
    *
@@ -61,6 +112,44 @@ public interface IAnimatorModel {
    */
   List<IColoredShape> getShapesAtTick(int tick) throws IllegalArgumentException;
 
+  /**
+   * Returns a list of only the shapes visible at the specified tick, in the order they are drawn.
+   * Shapes that have not started or have finished their motions are not checked at all.
+   *
+   * @param tick The time to get the visible shapes at
+   * @return List of the visible Shapes at the specified tick
+   * @throws IllegalArgumentException if tick is negative
+   */
+  List<IColoredShape> getVisibleShapesAtTick(int tick) throws IllegalArgumentException;
+
+  /**
+   * Returns only the shapes whose visibility, position, size, or color differ between the two
+   * given ticks, along with their index in {@code getNames()}. Applying them onto the list of
+   * shapes at the first tick gives the list of shapes at the second.
+   *
+   * @param fromTick The tick of the frame to compare against
+   * @param toTick The tick of the new frame
+   * @return List of the changed shapes in their state at {@code toTick}, in order of index
+   * @throws IllegalArgumentException if either tick is negative
+   */
+  List<ShapeDelta> getChangesBetween(int fromTick, int toTick) throws IllegalArgumentException;
+
+  /**
+   * Returns a number that changes every time a shape or motion is added, removed, or edited. The
+   * deltas between two ticks only apply onto shapes taken from the same version of the model.
+   *
+   * @return integer of the current version of the model
+   */
+  int getVersion();
+
+  /**
+   * Returns an immutable snapshot of the model as it is now. The same snapshot is returned until
+   * the model is next edited, and it may be read from any thread while the model is edited.
+   *
+   * @return the snapshot of the current version of the model
+   */
+  ModelSnapshot getSnapshot();
+
   /**
    * Returns a list of motions for the specified shape. Motions are read-only.
    *
@@ -70,6 +159,15 @@ public interface IAnimatorModel {
    */
   List<IROMotion> getMotionsForShape(String id) throws IllegalArgumentException;
 
+  /**
+   * Returns a list of motions for the shape with the given handle. Motions are read-only.
+   *
+   * @param handle The handle of the shape to retrieve the motions for
+   * @return List of all the motions for the shape
+   * @throws IllegalArgumentException if the handle does not exist
+   */
+  List<IROMotion> getMotionsForShape(int handle) throws IllegalArgumentException;
+
   /**
    * Sets the bounds of the canvas the model will play in.
    *
@@ -93,6 +191,13 @@ public interface IAnimatorModel {
    */
   int getFinalTick();
 
+  /**
+   * Returns the smallest start tick represented in the motions. If none exist, returns 0.
+   *
+   * @return Integer of the first tick in shape motions.
+   */
+  int getStartTick();
+
   /**
    * Returns a list of all the IDs representing shapes within the model.
    *
@@ -108,7 +213,7 @@ public interface IAnimatorModel {
   void resetShapes();
 
   /**
-   * Returns a deep copy of the shape of the specified ID.
+   * Returns a read-only snapshot of the shape of the specified ID in its original state.
    *
    * @param id the ID of the shape
    * @throws IllegalArgumentException if the ID doesn't exist or is null
@@ -116,7 +221,17 @@ public interface IAnimatorModel {
   IColoredShape getShape(String id);
 
   /**
-   * Adds a keyframe into the animation for the specified shape.
+   * Returns a read-only snapshot of the shape with the given handle in its original state.
+   *
+   * @param handle the handle of the shape
+   * @throws IllegalArgumentException if the handle doesn't exist
+   */
+  IColoredShape getShape(int handle);
+
+  /**
+   * Adds a keyframe into the animation for the specified shape, changing one part of its state at
+   * the given tick while it keeps its state at every other keyframe. Keyframes are not stored on
+   * their own: the motions of the shape are edited so that it reaches the new state at the tick.
    *
    * @param id The ID to add the keyframe onto
    * @param state The kind of change to process
@@ -128,12 +243,74 @@ public interface IAnimatorModel {
   void addKeyframe(String id, String state, int tick, int ... params);
 
   /**
-   * Removes the keyframe from the animation for the shape at the given time.
+   * Removes the keyframe from the animation for the shape at the given time, so that the shape
+   * moves straight from the keyframe before it to the keyframe after it. The keyframes of a shape
+   * are the start of its first motion, the end of every motion, and the start of any motion that
+   * begins after a gap. Nothing happens if there is no keyframe at the tick.
    *
    * @param id The ID to remove the keyframe from
    * @param tick The tick to remove the keyframe from
-   * @throws IllegalArgumentException if the ID doesn't exist or if the tick does not align with a
-   *                                  motion
+   * @throws IllegalArgumentException if the ID doesn't exist or if the tick is less than 0
    */
   void removeKeyframe(String id, int tick);
+
+  /**
+   * Sets how many edits of shapes can be undone, dropping the oldest edits beyond it. Each edit
+   * only keeps the timelines of the one shape it changed, shared with the model and the edits next
+   * to it, so the history never copies the whole model. Edits are not recorded by default.
+   *
+   * @param depth The most edits to keep, where 0 stops recording and clears the history
+   * @throws IllegalArgumentException if the depth is negative
+   */
+  void setHistoryDepth(int depth);
+
+  /**
+   * Undoes the most recent edit of a shape, which is adding or removing it, adding motions to it,
+   * or adding or removing one of its keyframes.
+   *
+   * @return true if an edit was undone, false if there was none to undo
+   * @throws IllegalStateException if a batch of edits is open
+   */
+  boolean undo();
+
+  /**
+   * Redoes the most recently undone edit, as long as no other edit was made since.
+   *
+   * @return true if an edit was redone, false if there was none to redo
+   * @throws IllegalStateException if a batch of edits is open
+   */
+  boolean redo();
+
+  /**
+   * Returns a rough estimate of the memory held by the history of edits, in bytes.
+   *
+   * @return the estimated size of the history
+   */
+  long getHistoryBytes();
+
+  /**
+   * Begins a batch of edits. Edits of shapes made until the batch is committed are applied to the
+   * model as usual, but frames and snapshots keep showing the model as it was when the batch
+   * began. Everything that is otherwise done after every edit is done once, when the batch is
+   * committed: motions added to a shape are sorted once, its timeline is compiled once, the model
+   * moves on to a single new version, and the whole batch is undone as a single edit.
+   *
+   * @throws IllegalStateException if a batch is already open
+   */
+  void beginBatch();
+
+  /**
+   * Commits the open batch of edits, making all of them visible at once.
+   *
+   * @throws IllegalStateException if no batch is open
+   */
+  void commitBatch();
+
+  /**
+   * Rolls back the open batch, putting every shape it edited back the way it was when the batch
+   * began. Changes to the bounds of the canvas are not rolled back.
+   *
+   * @throws IllegalStateException if no batch is open
+   */
+  void rollbackBatch();
 }
@@ -13,11 +13,20 @@ public interface IColoredShape {
    */
   Color getColor();
 
+  /**
+   * Returns the color of the shape packed into an integer as 0xRRGGBB, which unlike
+   * {@code getColor()} never needs to create an object.
+   *
+   * @return the packed color of the shape
+   */
+  int getRGB();
+
   /**
    * Sets the color of the shape.
    *
    * @param color The new color
    * @throws IllegalArgumentException if color is null
+   * @throws UnsupportedOperationException if the shape is a read-only snapshot
    */
   void setColor(Color color) throws IllegalArgumentException;
 
@@ -56,6 +65,7 @@ public interface IColoredShape {
    * @param y The new y coordinate
    * @param width The new width
    * @param height The new height
+   * @throws UnsupportedOperationException if the shape is a read-only snapshot
    */
   void setShape(int x, int y, int width, int height);
 
@@ -51,10 +51,34 @@ public interface IMotion {
 
   void addState(String state) throws IllegalArgumentException;
 
+  /**
+   * Adds an already parsed state for the shape to be in at the end time.
+   *
+   * @param state State to be in
+   * @throws IllegalArgumentException if state is null
+   */
+  void addState(MotionState state) throws IllegalArgumentException;
+
   /**
    * Returns a list of states that the shape should be in at the ending time.
    *
    * @return List of states
    */
   List<String> getStates();
+
+  /**
+   * Returns the number of states the motion has.
+   *
+   * @return integer of the number of states
+   */
+  int getStateCount();
+
+  /**
+   * Returns the parsed state at the given index, in the order they were added.
+   *
+   * @param index Index of the state
+   * @return the state at the index
+   * @throws IndexOutOfBoundsException if the index is not within [0, getStateCount())
+   */
+  MotionState getState(int index);
 }
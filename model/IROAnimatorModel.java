@@ -1,21 +1,13 @@
 package cs3500.animator.model;
 
+import cs3500.animator.util.AnimationBuilder;
 import java.util.List;
 
 /**
- * Represents a read-only {@code IAnimatorModel}. Only has the ability to return the shapes at a
- * particular tick.
+ * Represents a read-only {@code IAnimatorModel}. Can be played like any
+ * {@code IROPlaybackModel}, and can also describe its shapes and their motions.
  */
-public interface IROAnimatorModel {
-
-  /**
-   * Returns a copy of the {@code IColoredShape}s at the specified tick.
-   *
-   * @param tick The tick to retrieve the shapes at
-   * @return List of shapes at the particular tick.
-   * @throws IllegalArgumentException if the given tick is less than 0
-   */
-  List<IColoredShape> getShapesAt(int tick) throws IllegalArgumentException;
+public interface IROAnimatorModel extends IROPlaybackModel {
 
   /**
    * Returns a String of the description of the shapes and their movements.
@@ -25,48 +17,57 @@ public interface IROAnimatorModel {
   String getDescription();
 
   /**
-   * Returns a list of read-only motions for the specified ID.
+   * Writes the description of the shapes and their movements onto the given output as it is
+   * produced, without building it as a single String.
    *
-   * @param id The ID of the specified shape
-   * @return List of read-only motions for the shape
-   * @throws IllegalArgumentException if the ID is null or nonexistent
+   * @param out The output to write the description to
+   * @throws IllegalArgumentException if the output is null
+   * @throws IllegalStateException if the output cannot be written to
    */
-  List<IROMotion> getMotionsFor(String id) throws IllegalArgumentException;
+  void writeDescription(Appendable out) throws IllegalArgumentException, IllegalStateException;
 
   /**
-   * Returns the bounds of the model to operate in, in the order of x, y, width, height.
+   * Gives the canvas, if declared, and every shape and its motions to the given builder, in the
+   * same order as they are described by {@code writeDescription}. The builder is not built.
    *
-   * @return Integer array of the bounds, in order of x, y, width, height
-   * @throws IllegalStateException if the bounds have not been declared
+   * @param builder The builder to give the animation to
+   * @throws IllegalArgumentException if the builder is null
    */
-  int[] getBounds() throws IllegalStateException;
+  void describeTo(AnimationBuilder<?> builder) throws IllegalArgumentException;
 
   /**
-   * Returns the final tick of the last motion in the model.
+   * Returns a list of read-only motions for the specified ID.
    *
-   * @return integer of the final tick
+   * @param id The ID of the specified shape
+   * @return List of read-only motions for the shape
+   * @throws IllegalArgumentException if the ID is null or nonexistent
    */
-  int getFinalTick();
+  List<IROMotion> getMotionsFor(String id) throws IllegalArgumentException;
 
   /**
-   * Returns a list of IDs for all the shapes in the model.
+   * Returns a list of read-only motions for the shape with the given handle.
    *
-   * @return List of Strings representing IDs
+   * @param handle The handle of the shape, as given by {@code getHandle}
+   * @return List of read-only motions for the shape
+   * @throws IllegalArgumentException if the handle is nonexistent
    */
-  List<String> getNames();
+  List<IROMotion> getMotionsFor(int handle) throws IllegalArgumentException;
 
   /**
    * Loops and resets the shapes to their original states.
    *
    * @return {@code this}, the current read-only model with the reset shapes
    */
+  @Override
   IROAnimatorModel loop();
 
   /**
-   * Returns the shape with the specified ID.
+   * Returns a read-only model pinned to the current state of this one, which later edits do not
+   * change. Every query made while drawing a frame should go to the same pinned model, so that the
+   * frame is consistent even if the model is edited meanwhile.
    *
-   * @param id The ID of the shape to return
-   * @throws IllegalArgumentException if the ID doesn't exit or is null
+   * @return a read-only model that never changes, which may be {@code this}
    */
-  IColoredShape getShape(String id);
+  @Override
+  IROAnimatorModel getSnapshot();
 }
@@ -0,0 +1,132 @@
+package cs3500.animator.model;
+
+import java.util.List;
+
+/**
+ * Represents a read-only animation that can be played: it has the shapes at every tick, the
+ * bounds, and the span of ticks to play, but not necessarily the motions the shapes follow, so it
+ * may not be able to describe itself. Views that only draw the shapes tick by tick depend on this
+ * rather than on {@code IROAnimatorModel}, so that they can also play animations such as baked
+ * ones.
+ */
+public interface IROPlaybackModel {
+
+  /**
+   * Returns a copy of the {@code IColoredShape}s at the specified tick.
+   *
+   * @param tick The tick to retrieve the shapes at
+   * @return List of shapes at the particular tick.
+   * @throws IllegalArgumentException if the given tick is less than 0
+   */
+  List<IColoredShape> getShapesAt(int tick) throws IllegalArgumentException;
+
+  /**
+   * Returns a copy of only the {@code IColoredShape}s visible at the specified tick, in the order
+   * they are drawn.
+   *
+   * @param tick The tick to retrieve the visible shapes at
+   * @return List of visible shapes at the particular tick.
+   * @throws IllegalArgumentException if the given tick is less than 0
+   */
+  List<IColoredShape> getVisibleShapesAt(int tick) throws IllegalArgumentException;
+
+  /**
+   * Returns only the shapes visible at the specified tick, in the order they are drawn, each along
+   * with its index in {@code getNames()}: the changes from an empty frame to the frame at the
+   * tick. Like {@code getVisibleShapesAt}, only the visible shapes are evaluated.
+   *
+   * @param tick The tick to retrieve the visible shapes at
+   * @return List of the visible shapes at the tick, in ascending order of index
+   * @throws IllegalArgumentException if the given tick is less than 0
+   */
+  List<ShapeDelta> getIndexedVisibleShapesAt(int tick) throws IllegalArgumentException;
+
+  /**
+   * Returns only the shapes that changed between the two given ticks, along with their index in
+   * {@code getNames()}.
+   *
+   * @param fromTick The tick of the frame to compare against
+   * @param toTick The tick of the new frame
+   * @return List of the changed shapes in their state at {@code toTick}
+   * @throws IllegalArgumentException if either tick is less than 0
+   */
+  List<ShapeDelta> getChangesBetween(int fromTick, int toTick) throws IllegalArgumentException;
+
+  /**
+   * Returns a number that changes every time the shapes or motions of the model change.
+   *
+   * @return integer of the current version of the model
+   */
+  int getVersion();
+
+  /**
+   * Returns the handle of the shape with the given ID, which stays the same for as long as the
+   * shape exists.
+   *
+   * @param id The ID of the shape
+   * @return the handle of the shape
+   * @throws IllegalArgumentException if the ID is null or nonexistent
+   */
+  int getHandle(String id) throws IllegalArgumentException;
+
+  /**
+   * Returns the bounds of the model to operate in, in the order of x, y, width, height.
+   *
+   * @return Integer array of the bounds, in order of x, y, width, height
+   * @throws IllegalStateException if the bounds have not been declared
+   */
+  int[] getBounds() throws IllegalStateException;
+
+  /**
+   * Returns the final tick of the last motion in the model.
+   *
+   * @return integer of the final tick
+   */
+  int getFinalTick();
+
+  /**
+   * Returns the start tick of the first motion in the model, or 0 if there are no motions.
+   *
+   * @return integer of the start tick
+   */
+  int getStartTick();
+
+  /**
+   * Returns a list of IDs for all the shapes in the model.
+   *
+   * @return List of Strings representing IDs
+   */
+  List<String> getNames();
+
+  /**
+   * Loops and resets the shapes to their original states.
+   *
+   * @return {@code this}, the current read-only model with the reset shapes
+   */
+  IROPlaybackModel loop();
+
+  /**
+   * Returns a read-only model pinned to the current state of this one, which later edits do not
+   * change. Every query made while drawing a frame should go to the same pinned model, so that the
+   * frame is consistent even if the model is edited meanwhile.
+   *
+   * @return a read-only model that never changes, which may be {@code this}
+   */
+  IROPlaybackModel getSnapshot();
+
+  /**
+   * Returns the shape with the specified ID.
+   *
+   * @param id The ID of the shape to return
+   * @throws IllegalArgumentException if the ID doesn't exit or is null
+   */
+  IColoredShape getShape(String id);
+
+  /**
+   * Returns the shape with the given handle.
+   *
+   * @param handle The handle of the shape to return
+   * @throws IllegalArgumentException if the handle doesn't exist
+   */
+  IColoredShape getShape(int handle);
+}
@@ -0,0 +1,160 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents the keyframes of a single shape read from an animation file, each being the full
+ * state of the shape at a tick, before they are added to a model. Keyframes are kept sorted by
+ * tick in parallel arrays of primitives, with the color packed into a single int, so a keyframe
+ * takes six ints rather than the two states of a motion, and finding, adding or replacing a
+ * keyframe is a binary search. The track is only used by {@code IAnimatorModelImpl.Builder} while
+ * reading: models store motions, so the keyframes are turned into motions, moving in a straight
+ * line from each keyframe to the next, when they are added to the model, and may be taken a few
+ * at a time while keyframes are still being read.
+ */
+final class KeyframeTrack {
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private int[] ticks; // Tick of each keyframe, sorted
+  private int[] xs; // X position at each keyframe
+  private int[] ys; // Y position at each keyframe
+  private int[] widths; // Width at each keyframe
+  private int[] heights; // Height at each keyframe
+  private int[] colors; // Color at each keyframe, packed as RGB
+  private int size = 0; // Number of keyframes
+  private boolean taken = false; // If motions have been taken from the track before
+
+  /**
+   * Constructs a track with no keyframes.
+   */
+  KeyframeTrack() {
+    ticks = new int[INITIAL_CAPACITY];
+    xs = new int[INITIAL_CAPACITY];
+    ys = new int[INITIAL_CAPACITY];
+    widths = new int[INITIAL_CAPACITY];
+    heights = new int[INITIAL_CAPACITY];
+    colors = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Adds a keyframe, replacing any keyframe already at the same tick.
+   *
+   * @param tick The tick of the keyframe
+   * @param x The x position of the shape
+   * @param y The y position of the shape
+   * @param width The width of the shape
+   * @param height The height of the shape
+   * @param r The red value of the color of the shape
+   * @param g The green value of the color of the shape
+   * @param b The blue value of the color of the shape
+   * @throws IllegalArgumentException if the tick, width or height are negative, or a color value
+   *                                  is not in the range [0, 255]
+   */
+  void put(int tick, int x, int y, int width, int height, int r, int g, int b) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Tick less than zero.");
+    }
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Width or height less than zero");
+    }
+    if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
+      throw new IllegalArgumentException("Invalid color values");
+    }
+    int index = Arrays.binarySearch(ticks, 0, size, tick);
+    if (index < 0) {
+      index = -index - 1;
+      if (size == ticks.length) {
+        grow();
+      }
+      int moved = size - index;
+      System.arraycopy(ticks, index, ticks, index + 1, moved);
+      System.arraycopy(xs, index, xs, index + 1, moved);
+      System.arraycopy(ys, index, ys, index + 1, moved);
+      System.arraycopy(widths, index, widths, index + 1, moved);
+      System.arraycopy(heights, index, heights, index + 1, moved);
+      System.arraycopy(colors, index, colors, index + 1, moved);
+      size++;
+    }
+    ticks[index] = tick;
+    xs[index] = x;
+    ys[index] = y;
+    widths[index] = width;
+    heights[index] = height;
+    colors[index] = (r << 16) | (g << 8) | b;
+  }
+
+  /**
+   * Copies the state of the shape at the keyframe with the given index.
+   *
+   * @param index The index of the keyframe, in order of tick
+   * @param values The array to copy into, in the order of x, y, width, height, red, green, blue
+   * @throws IndexOutOfBoundsException if the index is not within [0, size())
+   */
+  void valuesAt(int index, int[] values) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("No keyframe at index " + index);
+    }
+    values[ShapeTimeline.X] = xs[index];
+    values[ShapeTimeline.Y] = ys[index];
+    values[ShapeTimeline.WIDTH] = widths[index];
+    values[ShapeTimeline.HEIGHT] = heights[index];
+    values[ShapeTimeline.RED] = (colors[index] >> 16) & 0xFF;
+    values[ShapeTimeline.GREEN] = (colors[index] >> 8) & 0xFF;
+    values[ShapeTimeline.BLUE] = colors[index] & 0xFF;
+  }
+
+  /**
+   * Derives the motions of the shape from its keyframes, one from each keyframe to the next, and
+   * then drops every keyframe but the last, which the next keyframes added continue from. The
+   * first time motions are taken, the first keyframe also gets a motion of its own that starts
+   * and ends at its tick when the shape starts off in a different state, or when it is the only
+   * keyframe.
+   *
+   * @param from The state the shape starts off in, in the order of x, y, width, height, red,
+   *             green, blue
+   * @return a new list of the motions, sorted by start time
+   */
+  List<IMotion> takeMotions(int[] from) {
+    List<IMotion> result = new ArrayList<>(size);
+    if (size == 0) {
+      return result;
+    }
+    int[] previous = new int[ShapeTimeline.CHANNELS];
+    int[] current = new int[ShapeTimeline.CHANNELS];
+    valuesAt(0, current);
+    if (!taken && (size == 1 || !Arrays.equals(from, current))) {
+      result.add(MotionLists.between(ticks[0], ticks[0], from, current));
+    }
+    for (int k = 1; k < size; k++) {
+      int[] swap = previous;
+      previous = current;
+      current = swap;
+      valuesAt(k, current);
+      result.add(MotionLists.between(ticks[k - 1], ticks[k], previous, current));
+    }
+    int last = size - 1;
+    ticks[0] = ticks[last];
+    xs[0] = xs[last];
+    ys[0] = ys[last];
+    widths[0] = widths[last];
+    heights[0] = heights[last];
+    colors[0] = colors[last];
+    size = 1;
+    taken = true;
+    return result;
+  }
+
+  // Doubles the capacity of the arrays
+  private void grow() {
+    int capacity = ticks.length * 2;
+    ticks = Arrays.copyOf(ticks, capacity);
+    xs = Arrays.copyOf(xs, capacity);
+    ys = Arrays.copyOf(ys, capacity);
+    widths = Arrays.copyOf(widths, capacity);
+    heights = Arrays.copyOf(heights, capacity);
+    colors = Arrays.copyOf(colors, capacity);
+  }
+}
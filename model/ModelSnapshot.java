@@ -0,0 +1,247 @@
+package cs3500.animator.model;
+
+import cs3500.animator.util.AnimationBuilder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Represents a model exactly as it was at one version. Snapshots are published by the models
+ * after they are edited and never change afterwards, so any number of threads may read the same
+ * snapshot without locking, and every frame drawn from one snapshot is consistent even while the
+ * model is being edited. Shapes are kept as their compiled timelines, which also record their
+ * motions, indexed by the same handles as the model.
+ */
+public final class ModelSnapshot implements IROAnimatorModel {
+
+  private final int version; // Version of the model the snapshot was taken at
+  private final int[] bounds; // Bounding box for the canvas, null if not declared
+  private final String[] names; // ID of the shape with each handle, null if it was removed
+  private final ShapeTimeline[] timelines; // Timeline of each handle, null if it was removed
+  private final ShapeIdIndex handles; // Handles of the IDs of the shapes
+  private final List<String> liveNames; // IDs of the shapes in order, cannot be modified
+  private final TimelineIndex index; // Index of visible shapes over the live handles
+  private final int startTick; // Start tick of the first motion
+  private final int finalTick; // End tick of the last motion
+  private final ForkJoinPool pool; // Pool to evaluate frames on, null if only sequential
+  private final int parallelThreshold; // Shapes below which frames are evaluated sequentially
+
+  /**
+   * Constructs a snapshot from the state of a model. The arrays and the index of IDs are kept, not
+   * copied, so the model must hand over copies that it never changes afterwards.
+   *
+   * @param version The version of the model
+   * @param bounds The bounding box for the canvas, or null if not declared
+   * @param names The ID of the shape with each handle, null if it was removed
+   * @param timelines The compiled timeline of each handle, null if it was removed
+   * @param handles The handles of the IDs of the shapes
+   * @param startTick The start tick of the first motion
+   * @param finalTick The end tick of the last motion
+   * @param pool The pool to evaluate frames on, or null to always evaluate sequentially
+   * @param parallelThreshold The number of shapes below which a frame is evaluated sequentially
+   */
+  ModelSnapshot(int version, int[] bounds, String[] names, ShapeTimeline[] timelines,
+      ShapeIdIndex handles, int startTick, int finalTick, ForkJoinPool pool,
+      int parallelThreshold) {
+    this.version = version;
+    this.bounds = bounds == null ? null : new int[]{bounds[0], bounds[1], bounds[2], bounds[3]};
+    this.names = names;
+    this.timelines = timelines;
+    this.handles = handles;
+    this.startTick = startTick;
+    this.finalTick = finalTick;
+    this.pool = pool;
+    this.parallelThreshold = parallelThreshold;
+    List<String> live = new ArrayList<>(handles.size());
+    ShapeTimeline[] compiled = new ShapeTimeline[handles.size()];
+    for (int handle = 0; handle < names.length; handle++) {
+      if (names[handle] != null) {
+        compiled[live.size()] = timelines[handle];
+        live.add(names[handle]);
+      }
+    }
+    this.liveNames = Collections.unmodifiableList(live);
+    this.index = new TimelineIndex(compiled);
+  }
+
+  @Override
+  public List<IColoredShape> getShapesAt(int tick) throws IllegalArgumentException {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Negative tick");
+    }
+    // The state of each shape only depends on its own timeline, not on previous ticks
+    return FrameTask.evaluate(index, null, tick, pool, parallelThreshold);
+  }
+
+  @Override
+  public List<IColoredShape> getVisibleShapesAt(int tick) throws IllegalArgumentException {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Negative tick");
+    }
+    // Only the shapes alive at the tick are evaluated
+    return FrameTask.evaluate(index, index.activeAt(tick), tick, pool, parallelThreshold);
+  }
+
+  @Override
+  public List<ShapeDelta> getIndexedVisibleShapesAt(int tick) throws IllegalArgumentException {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Negative tick");
+    }
+    int[] positions = index.activeAt(tick);
+    List<IColoredShape> shapes = FrameTask.evaluate(index, positions, tick, pool,
+        parallelThreshold);
+    List<ShapeDelta> result = new ArrayList<>(positions.length);
+    for (int k = 0; k < positions.length; k++) {
+      result.add(new ShapeDelta(positions[k], shapes.get(k)));
+    }
+    return result;
+  }
+
+  @Override
+  public List<ShapeDelta> getChangesBetween(int fromTick, int toTick)
+      throws IllegalArgumentException {
+    if (fromTick < 0 || toTick < 0) {
+      throw new IllegalArgumentException("Negative tick");
+    }
+    return index.changesBetween(fromTick, toTick);
+  }
+
+  @Override
+  public int getVersion() {
+    return this.version;
+  }
+
+  @Override
+  public String getDescription() {
+    StringBuilder result = new StringBuilder();
+    writeDescription(result);
+    return result.toString();
+  }
+
+  @Override
+  public void writeDescription(Appendable out) throws IllegalArgumentException,
+      IllegalStateException {
+    DescriptionWriter writer = new DescriptionWriter(out);
+    for (int handle = 0; handle < names.length; handle++) {
+      if (names[handle] != null) {
+        writer.writeTimeline(names[handle], timelines[handle]);
+      }
+    }
+    writer.flush();
+  }
+
+  @Override
+  public void describeTo(AnimationBuilder<?> builder) throws IllegalArgumentException {
+    if (builder == null) {
+      throw new IllegalArgumentException("Null builder given");
+    }
+    if (bounds != null) {
+      builder.setBounds(bounds[0], bounds[1], bounds[2], bounds[3]);
+    }
+    int[] from = new int[ShapeTimeline.CHANNELS];
+    int[] to = new int[ShapeTimeline.CHANNELS];
+    for (int handle = 0; handle < names.length; handle++) {
+      String id = names[handle];
+      if (id == null) {
+        continue;
+      }
+      ShapeTimeline timeline = timelines[handle];
+      builder.declareShape(id, DescriptionWriter.typeName(timeline.getShapeType()));
+      for (int k = 0; k < timeline.size(); k++) {
+        for (int c = 0; c < ShapeTimeline.CHANNELS; c++) {
+          from[c] = timeline.startValue(k, c);
+          to[c] = timeline.endValue(k, c);
+        }
+        builder.addMotion(id, timeline.getStart(k), from[0], from[1], from[2], from[3], from[4],
+            from[5], from[6], timeline.getEnd(k), to[0], to[1], to[2], to[3], to[4], to[5],
+            to[6]);
+      }
+    }
+  }
+
+  @Override
+  public List<IROMotion> getMotionsFor(String id) throws IllegalArgumentException {
+    return getMotionsFor(getHandle(id));
+  }
+
+  @Override
+  public List<IROMotion> getMotionsFor(int handle) throws IllegalArgumentException {
+    ShapeTimeline timeline = timelineOf(handle);
+    List<IROMotion> result = new ArrayList<>(timeline.size());
+    for (int k = 0; k < timeline.size(); k++) {
+      result.add(timeline.getMotion(k));
+    }
+    return result;
+  }
+
+  @Override
+  public int getHandle(String id) throws IllegalArgumentException {
+    if (id == null) {
+      throw new IllegalArgumentException("Null ID given");
+    }
+    int handle = handles.get(id);
+    if (handle < 0) {
+      throw new IllegalArgumentException("Shape ID does not correspond to a shape.");
+    }
+    return handle;
+  }
+
+  @Override
+  public int[] getBounds() throws IllegalStateException {
+    if (bounds == null) {
+      throw new IllegalStateException("Bounds not declared");
+    }
+    return new int[]{bounds[0], bounds[1], bounds[2], bounds[3]};
+  }
+
+  @Override
+  public int getFinalTick() {
+    return this.finalTick;
+  }
+
+  @Override
+  public int getStartTick() {
+    return this.startTick;
+  }
+
+  /**
+   * Returns the IDs of the shapes in order. The list is shared between callers and cannot be
+   * modified.
+   *
+   * @return the IDs of the shapes
+   */
+  @Override
+  public List<String> getNames() {
+    return this.liveNames;
+  }
+
+  @Override
+  public IROAnimatorModel loop() {
+    // Snapshots never change, so there is nothing to reset
+    return this;
+  }
+
+  @Override
+  public IROAnimatorModel getSnapshot() {
+    return this;
+  }
+
+  @Override
+  public IColoredShape getShape(String id) {
+    return getShape(getHandle(id));
+  }
+
+  @Override
+  public IColoredShape getShape(int handle) {
+    return timelineOf(handle).getOriginal();
+  }
+
+  // Timeline of the shape with the given handle, if it exists
+  private ShapeTimeline timelineOf(int handle) {
+    if (handle < 0 || handle >= names.length || names[handle] == null) {
+      throw new IllegalArgumentException("Handle does not correspond to a shape.");
+    }
+    return timelines[handle];
+  }
+}
@@ -0,0 +1,366 @@
+package cs3500.animator.model;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Contains the operations for editing the sorted list of motions of a single shape, shared by the
+ * implementations of {@code IAnimatorModel}.
+ */
+final class MotionLists {
+
+  private static final Comparator<IMotion> BY_START = new MotionStartTimeComparator();
+
+  // Not meant to be instantiated
+  private MotionLists() {
+  }
+
+  /**
+   * Adds the motion to the given list, keeping the list sorted by start time. The motion is placed
+   * after any motions with the same start time, found by binary search rather than by sorting the
+   * whole list again.
+   *
+   * @param motionList The motions of a shape, sorted by start time
+   * @param motion Motion to be added
+   */
+  static void addSorted(List<IMotion> motionList, IMotion motion) {
+    int start = motion.getStart();
+    int size = motionList.size();
+    // Motions usually arrive in order, in which case they simply go at the end
+    if (size == 0 || motionList.get(size - 1).getStart() <= start) {
+      motionList.add(motion);
+      return;
+    }
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (motionList.get(mid).getStart() <= start) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    motionList.add(low, motion);
+  }
+
+  /**
+   * Adds every given motion to the given list and sorts the list by start time once, which is
+   * cheaper than adding the motions one at a time when loading many of them.
+   *
+   * @param motionList The motions of a shape, sorted by start time
+   * @param motions Motions to be added, in any order
+   */
+  static void addAllSorted(List<IMotion> motionList, List<IMotion> motions) {
+    motionList.addAll(motions);
+    // Sorting is stable, so motions with the same start time keep the order they were added in
+    motionList.sort(BY_START);
+  }
+
+  /**
+   * Adds the motion to the end of the given list without moving any motions, for edits that sort
+   * the list once afterwards with {@code sort}.
+   *
+   * @param motionList The motions of a shape
+   * @param motion Motion to be added
+   * @return true if the list is still sorted by start time, assuming it was before
+   */
+  static boolean addUnsorted(List<IMotion> motionList, IMotion motion) {
+    int size = motionList.size();
+    motionList.add(motion);
+    return size == 0 || motionList.get(size - 1).getStart() <= motion.getStart();
+  }
+
+  /**
+   * Sorts the given list by start time. Sorting is stable, so the result is the same as adding the
+   * motions one at a time with {@code addSorted} in the order they are in.
+   *
+   * @param motionList The motions of a shape
+   */
+  static void sort(List<IMotion> motionList) {
+    motionList.sort(BY_START);
+  }
+
+  /**
+   * Adds a keyframe to the given list of motions, changing one part of the state of the shape at
+   * the given tick while keeping its state at every other keyframe. The keyframes of a shape are
+   * the start of its first motion, the end of every motion, and the start of any motion that
+   * begins after a gap. The motion around the tick is found by binary search over the compiled
+   * timeline of the shape, then split at the tick, or the motions next to the tick have their end
+   * states changed, so only the motions around the tick are touched. Motions that overlap can
+   * leave the new motions out of order with their neighbours, in which case the list is sorted
+   * again, so that it stays sorted whether or not a batch of edits is open.
+   *
+   * @param motionList The motions of a shape, sorted by start time
+   * @param timeline The timeline compiled from the motions
+   * @param original The original state of the shape, changed in place if the first keyframe is
+   *                 changed
+   * @param state The kind of change to process, which is "move", "size", or "color"
+   * @param tick The tick to add it at
+   * @param params Other parameters, which may be x, y, width, height, or color RGB values
+   * @return true if the original state was changed
+   * @throws IllegalArgumentException if the tick is negative, the state is invalid, or not enough
+   *                                  parameters are given
+   */
+  static boolean addKeyframe(List<IMotion> motionList, ShapeTimeline timeline, int[] original,
+      String state, int tick, int... params) {
+    int index = motionList.isEmpty() || tick < 0 ? -1 : timeline.indexAt(tick);
+    boolean changed = insertKeyframe(motionList, timeline, original, state, tick, params);
+    // Only the motions from the one before the motion around the tick to the three after it are
+    // replaced or added, so only they can be out of order
+    int last = Math.min(index + 3, motionList.size() - 1);
+    for (int k = Math.max(index - 1, 1); k <= last; k++) {
+      if (motionList.get(k).getStart() < motionList.get(k - 1).getStart()) {
+        sort(motionList);
+        break;
+      }
+    }
+    return changed;
+  }
+
+  // Adds a keyframe as described by addKeyframe, without sorting the list again afterwards
+  private static boolean insertKeyframe(List<IMotion> motionList, ShapeTimeline timeline,
+      int[] original, String state, int tick, int... params) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Tick less than zero.");
+    }
+    MotionState change = createState(state, params);
+    // Empty motions, basically adding first keyframe for the shape
+    if (motionList.isEmpty()) {
+      IMotion motion = new ShapeMotion(tick, tick);
+      motion.addState(change);
+      motionList.add(motion);
+      return false;
+    }
+    int[] before = new int[ShapeTimeline.CHANNELS];
+    int[] after = new int[ShapeTimeline.CHANNELS];
+    // Adding keyframe before first motion, which becomes the original state of the shape
+    if (tick < timeline.getStart(0)) {
+      System.arraycopy(original, 0, before, 0, ShapeTimeline.CHANNELS);
+      ShapeTimeline.applyState(change, original);
+      motionList.add(0, between(tick, timeline.getStart(0), original, before));
+      return true;
+    }
+    int index = timeline.indexAt(tick);
+    int start = timeline.getStart(index);
+    int end = timeline.getEnd(index);
+    if (tick == start && index == 0 && start < end) {
+      // Changing the first keyframe, which is the original state of the shape
+      valuesAtEnd(timeline, 0, after);
+      ShapeTimeline.applyState(change, original);
+      motionList.set(0, between(start, end, original, after));
+      return true;
+    }
+    if (tick == start && index > 0 && start < end) {
+      // Keyframe at the start of a motion, which is either the end of the previous motion or
+      // the end of a gap after it
+      int previous = index - 1;
+      int[] last = new int[ShapeTimeline.CHANNELS];
+      valuesAtEnd(timeline, index, last);
+      valuesAtEnd(timeline, previous, before);
+      System.arraycopy(before, 0, after, 0, ShapeTimeline.CHANNELS);
+      ShapeTimeline.applyState(change, after);
+      int position = index;
+      if (timeline.getEnd(previous) == tick) {
+        valuesAtStart(timeline, previous, before);
+        motionList.set(previous, between(timeline.getStart(previous), tick, before, after));
+      } else {
+        motionList.add(index, between(timeline.getEnd(previous), tick, before, after));
+        position++;
+      }
+      // The motion still ends in the state it did before
+      motionList.set(position, between(tick, end, after, last));
+      return false;
+    }
+    valuesAtEnd(timeline, index, before);
+    System.arraycopy(before, 0, after, 0, ShapeTimeline.CHANNELS);
+    if (tick >= end) {
+      ShapeTimeline.applyState(change, after);
+      int next = index + 1;
+      if (tick == end) {
+        // Changing the keyframe at the end of the motion
+        int[] from = new int[ShapeTimeline.CHANNELS];
+        valuesAtStart(timeline, index, from);
+        motionList.set(index, between(start, end, from, after));
+      } else {
+        // Adding a keyframe in the gap after the motion, or after the last motion
+        motionList.add(next, between(end, tick, before, after));
+      }
+      if (next < timeline.size()) {
+        // The next motion still starts in the state it did before
+        int nextStart = timeline.getStart(next);
+        int position = next + motionList.size() - timeline.size();
+        if (nextStart == tick) {
+          valuesAtEnd(timeline, next, before);
+          motionList.set(position, between(tick, timeline.getEnd(next), after, before));
+        } else {
+          motionList.add(position, between(tick, nextStart, after, before));
+        }
+      }
+      return false;
+    }
+    // Splitting the motion in two at the tick
+    valuesAtStart(timeline, index, before);
+    timeline.valuesAt(tick, after);
+    ShapeTimeline.applyState(change, after);
+    int[] last = new int[ShapeTimeline.CHANNELS];
+    valuesAtEnd(timeline, index, last);
+    motionList.set(index, between(start, tick, before, after));
+    motionList.add(index + 1, between(tick, end, after, last));
+    return false;
+  }
+
+  /**
+   * Removes the keyframe at the given tick from the given list of motions, so that the shape moves
+   * straight from the keyframe before it to the keyframe after it. Removing the first keyframe
+   * makes the next one the original state of the shape. Nothing happens if there is no keyframe at
+   * the tick.
+   *
+   * @param motionList The motions of a shape, sorted by start time
+   * @param timeline The timeline compiled from the motions
+   * @param original The original state of the shape, changed in place if the first keyframe is
+   *                 removed
+   * @param tick The tick to remove the keyframe from
+   * @return true if the original state was changed
+   */
+  static boolean removeKeyframe(List<IMotion> motionList, ShapeTimeline timeline, int[] original,
+      int tick) {
+    int index = motionList.isEmpty() ? -1 : timeline.indexAt(tick);
+    // No motions to remove or edit
+    if (index < 0) {
+      return false;
+    }
+    int last = motionList.size() - 1;
+    // Motions that start and end at the tick only hold the keyframe, so they are skipped over and
+    // dropped along with it
+    int moving = timeline.getStart(index) == tick && timeline.getEnd(index) > tick ? index : -1;
+    int previous = moving < 0 ? index : index - 1;
+    while (previous >= 0 && timeline.getStart(previous) == tick) {
+      previous--;
+    }
+    int next = moving >= 0 ? moving : (index < last ? index + 1 : -1);
+    int[] from = new int[ShapeTimeline.CHANNELS];
+    int[] to = new int[ShapeTimeline.CHANNELS];
+    if (previous < 0) {
+      // Removing the first keyframe, so the shape starts at the next keyframe instead, in the
+      // state it had there
+      if (moving < 0) {
+        valuesAtEnd(timeline, index, original);
+        motionList.subList(0, index + 1).clear();
+        return true;
+      }
+      valuesAtEnd(timeline, moving, original);
+      int end = timeline.getEnd(moving);
+      if (moving == last || timeline.getStart(moving + 1) > end) {
+        // Nothing starts where the motion ends, so the keyframe there is kept on its own
+        motionList.set(moving, new ShapeMotion(end, end));
+      } else {
+        motionList.remove(moving);
+      }
+      motionList.subList(0, moving).clear();
+      return true;
+    }
+    int previousEnd = timeline.getEnd(previous);
+    if (previousEnd > tick || (previousEnd < tick && previous == index)) {
+      // No keyframe at the tick
+      return false;
+    }
+    int dropped = moving >= 0 ? moving : index + 1;
+    if (previousEnd == tick) {
+      valuesAtStart(timeline, previous, from);
+      int start = timeline.getStart(previous);
+      if (moving >= 0) {
+        // Chains the motions before and after the keyframe into one
+        valuesAtEnd(timeline, moving, to);
+        motionList.set(previous, between(start, timeline.getEnd(moving), from, to));
+        dropped++;
+      } else if (next >= 0) {
+        // The motion runs on through the gap after it instead of stopping
+        valuesAtEnd(timeline, index, to);
+        motionList.set(previous, between(start, timeline.getStart(next), from, to));
+      } else if (start < tick && (previous == 0 || timeline.getEnd(previous - 1) < start)) {
+        // Removing the last keyframe, where nothing ends where the motion starts, so the
+        // keyframe there is kept on its own
+        motionList.set(previous, new ShapeMotion(start, start));
+      } else {
+        // Removing the last keyframe
+        previous--;
+      }
+    } else if (moving >= 0) {
+      // The motion starts where the previous one ended instead of after the gap between them
+      valuesAtEnd(timeline, previous, from);
+      valuesAtEnd(timeline, moving, to);
+      motionList.set(moving, between(previousEnd, timeline.getEnd(moving), from, to));
+    } else if (next >= 0) {
+      // The shape moves through the gap on its way to the next motion instead of jumping
+      valuesAtEnd(timeline, previous, from);
+      valuesAtEnd(timeline, index, to);
+      motionList.set(index, between(previousEnd, timeline.getStart(next), from, to));
+      dropped--;
+    }
+    motionList.subList(previous + 1, dropped).clear();
+    return false;
+  }
+
+  /**
+   * Creates a motion between the given states, holding a state for each part of the state that
+   * changes between them.
+   *
+   * @param start The start tick of the motion
+   * @param end The end tick of the motion
+   * @param from The state at the start, in the order of x, y, width, height, red, green, blue
+   * @param to The state at the end, in the same order
+   * @return the new motion
+   */
+  static IMotion between(int start, int end, int[] from, int[] to) {
+    IMotion motion = new ShapeMotion(start, end);
+    if (from[ShapeTimeline.X] != to[ShapeTimeline.X]
+        || from[ShapeTimeline.Y] != to[ShapeTimeline.Y]) {
+      motion.addState(MotionState.move(to[ShapeTimeline.X], to[ShapeTimeline.Y]));
+    }
+    if (from[ShapeTimeline.WIDTH] != to[ShapeTimeline.WIDTH]
+        || from[ShapeTimeline.HEIGHT] != to[ShapeTimeline.HEIGHT]) {
+      motion.addState(MotionState.size(to[ShapeTimeline.WIDTH], to[ShapeTimeline.HEIGHT]));
+    }
+    if (from[ShapeTimeline.RED] != to[ShapeTimeline.RED]
+        || from[ShapeTimeline.GREEN] != to[ShapeTimeline.GREEN]
+        || from[ShapeTimeline.BLUE] != to[ShapeTimeline.BLUE]) {
+      motion.addState(MotionState.color(to[ShapeTimeline.RED], to[ShapeTimeline.GREEN],
+          to[ShapeTimeline.BLUE]));
+    }
+    return motion;
+  }
+
+  // Copies the state at the start of the given motion of the timeline
+  private static void valuesAtStart(ShapeTimeline timeline, int index, int[] values) {
+    for (int c = 0; c < ShapeTimeline.CHANNELS; c++) {
+      values[c] = timeline.startValue(index, c);
+    }
+  }
+
+  // Copies the state at the end of the given motion of the timeline
+  private static void valuesAtEnd(ShapeTimeline timeline, int index, int[] values) {
+    for (int c = 0; c < ShapeTimeline.CHANNELS; c++) {
+      values[c] = timeline.endValue(index, c);
+    }
+  }
+
+  // Creates the state of a keyframe from its kind and parameters, which the state checks are
+  // valid sizes and colors
+  private static MotionState createState(String state, int... params) {
+    try {
+      switch (state) {
+        case "color":
+          return MotionState.color(params[0], params[1], params[2]);
+        case "size":
+          return MotionState.size(params[0], params[1]);
+        case "move":
+          return MotionState.move(params[0], params[1]);
+        default:
+          throw new IllegalArgumentException("Invalid state: " + state);
+      }
+    } catch (IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Invalid number of parameters given.");
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a motion as it was when a snapshot of the model was taken. Unlike the motions kept by
+ * the model, which keyframe edits change in place, a motion snapshot never changes.
+ */
+final class MotionSnapshot implements IROMotion {
+
+  private final int start; // Starting time
+  private final int end; // Ending time
+  private final MotionState[] states; // States the shape should be at at the end, never changed
+
+  /**
+   * Constructs a snapshot of a motion with the given times and states. The array of states is
+   * kept, not copied, so it must not be changed afterwards.
+   *
+   * @param start Starting time
+   * @param end Ending time
+   * @param states States the shape should be at at the end
+   */
+  MotionSnapshot(int start, int end, MotionState[] states) {
+    this.start = start;
+    this.end = end;
+    this.states = states;
+  }
+
+  @Override
+  public int getStart() {
+    return this.start;
+  }
+
+  @Override
+  public int getEnd() {
+    return this.end;
+  }
+
+  @Override
+  public List<String> getStates() {
+    List<String> result = new ArrayList<>(states.length);
+    for (MotionState state : states) {
+      result.add(state.toString());
+    }
+    return result;
+  }
+}
@@ -9,8 +9,6 @@ public class MotionStartTimeComparator implements Comparator<IMotion> {
 
   @Override
   public int compare(IMotion that, IMotion other) {
-    Integer start1 = that.getStart();
-    Integer start2 = other.getStart();
-    return start1.compareTo(start2);
+    return Integer.compare(that.getStart(), other.getStart());
   }
 }
@@ -0,0 +1,161 @@
+package cs3500.animator.model;
+
+/**
+ * Represents a single state a shape should be in at the end of a motion, such as a position, size,
+ * or color. The values are parsed once and stored as integers so that they can be read without
+ * parsing text again. Immutable.
+ */
+public final class MotionState {
+
+  private final StateType type; // Kind of state change
+  private final int first; // x, width, or red value
+  private final int second; // y, height, or green value
+  private final int third; // blue value, unused otherwise
+
+  /**
+   * Constructs a state of the given type with the given values.
+   *
+   * @param type The kind of state change
+   * @param first The x coordinate, width, or red value
+   * @param second The y coordinate, height, or green value
+   * @param third The blue value, ignored for moves and sizes
+   * @throws IllegalArgumentException if the type is null, a size is less than 0, or a color value
+   *                                  is not in the range [0, 255]
+   */
+  public MotionState(StateType type, int first, int second, int third) {
+    if (type == null) {
+      throw new IllegalArgumentException("Null state type");
+    }
+    // Checked here rather than when the state is applied, since compiled timelines pack the
+    // values as they are
+    if (type == StateType.SIZE && (first < 0 || second < 0)) {
+      throw new IllegalArgumentException("Width or height less than zero");
+    }
+    if (type == StateType.COLOR && (first < 0 || first > 255 || second < 0 || second > 255
+        || third < 0 || third > 255)) {
+      throw new IllegalArgumentException("Invalid color values");
+    }
+    this.type = type;
+    this.first = first;
+    this.second = second;
+    this.third = type == StateType.COLOR ? third : 0;
+  }
+
+  /**
+   * Creates a state that moves the shape to the given position.
+   *
+   * @param x The x coordinate
+   * @param y The y coordinate
+   * @return the new state
+   */
+  public static MotionState move(int x, int y) {
+    return new MotionState(StateType.MOVE, x, y, 0);
+  }
+
+  /**
+   * Creates a state that resizes the shape to the given size.
+   *
+   * @param width The width
+   * @param height The height
+   * @return the new state
+   * @throws IllegalArgumentException if the width or height are less than 0
+   */
+  public static MotionState size(int width, int height) {
+    return new MotionState(StateType.SIZE, width, height, 0);
+  }
+
+  /**
+   * Creates a state that changes the shape to the given color.
+   *
+   * @param r Red value
+   * @param g Green value
+   * @param b Blue value
+   * @return the new state
+   * @throws IllegalArgumentException if a value is not in the range [0, 255]
+   */
+  public static MotionState color(int r, int g, int b) {
+    return new MotionState(StateType.COLOR, r, g, b);
+  }
+
+  /**
+   * Parses a state in the form of "move x y", "size w h", or "color r g b".
+   *
+   * @param state The textual form of the state
+   * @return the parsed state
+   * @throws IllegalArgumentException if the state is null, has no command, an invalid command,
+   *                                  not enough integer parameters, or invalid sizes or colors
+   */
+  public static MotionState parse(String state) throws IllegalArgumentException {
+    if (state == null) {
+      throw new IllegalArgumentException("Null state");
+    }
+    String[] tokens = state.trim().split("\\s+");
+    if (tokens[0].isEmpty()) {
+      throw new IllegalArgumentException("No command found");
+    }
+    StateType type = StateType.fromKeyword(tokens[0]);
+    int[] values = new int[3];
+    try {
+      for (int k = 0; k < type.getParamCount(); k++) {
+        values[k] = Integer.parseInt(tokens[k + 1]);
+      }
+    } catch (NumberFormatException | IndexOutOfBoundsException e) {
+      if (type == StateType.COLOR) {
+        throw new IllegalArgumentException("Not enough RGB values given");
+      }
+      throw new IllegalArgumentException("Not enough parameters given");
+    }
+    return new MotionState(type, values[0], values[1], values[2]);
+  }
+
+  /**
+   * Returns the kind of state change.
+   *
+   * @return the {@code StateType} of this state
+   */
+  public StateType getType() {
+    return this.type;
+  }
+
+  /**
+   * Returns the first value, which is the x coordinate, width, or red value.
+   *
+   * @return the first value
+   */
+  public int getFirst() {
+    return this.first;
+  }
+
+  /**
+   * Returns the second value, which is the y coordinate, height, or green value.
+   *
+   * @return the second value
+   */
+  public int getSecond() {
+    return this.second;
+  }
+
+  /**
+   * Returns the third value, which is the blue value for colors and 0 otherwise.
+   *
+   * @return the third value
+   */
+  public int getThird() {
+    return this.third;
+  }
+
+  /**
+   * Returns the state in its textual form, such as "move 200 20".
+   *
+   * @return String of the state
+   */
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+    result.append(type.getKeyword()).append(" ").append(first).append(" ").append(second);
+    if (type == StateType.COLOR) {
+      result.append(" ").append(third);
+    }
+    return result.toString();
+  }
+}
@@ -0,0 +1,74 @@
+package cs3500.animator.model;
+
+import java.nio.IntBuffer;
+import java.util.List;
+
+/**
+ * Utility for frames of shapes packed into integers, as kept by the frame cache and by baked
+ * animations. Every shape takes up {@code FIELDS} integers: the ordinal of its type, x, y, width,
+ * height, and its color packed as 0xRRGGBB. Hidden shapes keep their size of -1.
+ */
+final class PackedFrames {
+
+  static final int FIELDS = 6; // Number of integers per shape
+  private static final ShapeType[] TYPES = ShapeType.values();
+
+  private PackedFrames() {
+    // Utility class, not meant to be constructed
+  }
+
+  /**
+   * Packs the given shapes into a new frame.
+   *
+   * @param shapes The shapes to pack, in order
+   * @return the packed frame
+   */
+  static int[] pack(List<IColoredShape> shapes) {
+    int[] frame = new int[shapes.size() * FIELDS];
+    for (int k = 0; k < shapes.size(); k++) {
+      set(frame, k, shapes.get(k));
+    }
+    return frame;
+  }
+
+  /**
+   * Packs the given shape into the given frame at the given index.
+   *
+   * @param frame The frame to write into
+   * @param index The index of the shape within the frame
+   * @param shape The shape to pack
+   */
+  static void set(int[] frame, int index, IColoredShape shape) {
+    int base = index * FIELDS;
+    frame[base] = shape.getShapeType().ordinal();
+    frame[base + 1] = shape.getX();
+    frame[base + 2] = shape.getY();
+    frame[base + 3] = shape.getWidth();
+    frame[base + 4] = shape.getHeight();
+    frame[base + 5] = shape.getRGB();
+  }
+
+  /**
+   * Returns if the shape packed at the given offset is visible.
+   *
+   * @param ints The integers holding the shape
+   * @param base The offset of the first integer of the shape
+   * @return true if the shape is visible
+   */
+  static boolean isVisible(IntBuffer ints, int base) {
+    return ints.get(base + 3) >= 0;
+  }
+
+  /**
+   * Creates a new shape from the one packed at the given offset.
+   *
+   * @param ints The integers holding the shape
+   * @param base The offset of the first integer of the shape
+   * @return the new shape
+   */
+  static IColoredShape get(IntBuffer ints, int base) {
+    // Hidden shapes already hold a size of -1
+    return new ShapeSnapshot(TYPES[ints.get(base)], ints.get(base + 1), ints.get(base + 2),
+        ints.get(base + 3), ints.get(base + 4), ints.get(base + 5));
+  }
+}
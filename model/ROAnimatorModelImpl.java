@@ -1,23 +1,64 @@
 package cs3500.animator.model;
 
+import cs3500.animator.util.AnimationBuilder;
 import java.util.List;
 
 /**
  * Represents a read-only {@code IAnimatorModel}. Only has the ability to return the state of shapes
- * at a particular tick.
+ * at a particular tick. Frames returned by {@code getShapesAt(int)} are cached, so that ticks
+ * revisited while scrubbing or looping are not evaluated again until the model is edited. Every
+ * query is answered from an immutable snapshot of the model, so it may be made from any thread
+ * while the model is edited; {@code getSnapshot()} pins all queries to a single snapshot.
  */
 public class ROAnimatorModelImpl implements IROAnimatorModel {
 
+  /**
+   * Default number of bytes of frames to cache.
+   */
+  public static final long DEFAULT_CACHE_BYTES = 64L * 1024 * 1024;
+
   private final IAnimatorModel model;
+  private final FrameCache cache; // Recently evaluated frames
+  private final ModelSnapshot pinned; // Snapshot every query goes to, null to follow the model
 
   /**
-   * Constructs a {@code ROAnimatorModelImpl} using the given model.
+   * Constructs a {@code ROAnimatorModelImpl} using the given model, caching up to
+   * {@code DEFAULT_CACHE_BYTES} of frames.
    *
    * @param model The model to represent
    * @throws IllegalArgumentException if the model is null
    */
   public ROAnimatorModelImpl(IAnimatorModel model) {
+    this(model, DEFAULT_CACHE_BYTES);
+  }
+
+  /**
+   * Constructs a {@code ROAnimatorModelImpl} using the given model, caching up to the given number
+   * of bytes of frames. The least recently used frames are evicted first.
+   *
+   * @param model The model to represent
+   * @param cacheBytes The most bytes of frames to cache, where 0 disables the cache
+   * @throws IllegalArgumentException if the model is null or the number of bytes is negative
+   */
+  public ROAnimatorModelImpl(IAnimatorModel model, long cacheBytes) {
+    if (model == null) {
+      throw new IllegalArgumentException("Null model given");
+    }
+    this.model = model;
+    this.cache = new FrameCache(cacheBytes);
+    this.pinned = null;
+  }
+
+  // Constructs a read-only model pinned to the given snapshot, sharing the given cache
+  private ROAnimatorModelImpl(IAnimatorModel model, FrameCache cache, ModelSnapshot pinned) {
     this.model = model;
+    this.cache = cache;
+    this.pinned = pinned;
+  }
+
+  // Snapshot to answer a query from
+  private ModelSnapshot current() {
+    return pinned != null ? pinned : model.getSnapshot();
   }
 
   @Override
@@ -25,32 +66,106 @@ public class ROAnimatorModelImpl implements IROAnimatorModel {
     if (tick < 0) {
       throw new IllegalArgumentException("Invalid tick, less than zero");
     }
-    return this.model.getShapesAtTick(tick);
+    return cache.get(current(), tick);
+  }
+
+  @Override
+  public List<IColoredShape> getVisibleShapesAt(int tick) throws IllegalArgumentException {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Invalid tick, less than zero");
+    }
+    return current().getVisibleShapesAt(tick);
+  }
+
+  @Override
+  public List<ShapeDelta> getIndexedVisibleShapesAt(int tick) throws IllegalArgumentException {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Invalid tick, less than zero");
+    }
+    return current().getIndexedVisibleShapesAt(tick);
+  }
+
+  @Override
+  public List<ShapeDelta> getChangesBetween(int fromTick, int toTick)
+      throws IllegalArgumentException {
+    if (fromTick < 0 || toTick < 0) {
+      throw new IllegalArgumentException("Invalid tick, less than zero");
+    }
+    return current().getChangesBetween(fromTick, toTick);
+  }
+
+  @Override
+  public int getVersion() {
+    return current().getVersion();
+  }
+
+  /**
+   * Returns the number of frames from {@code getShapesAt(int)} that were found in the cache.
+   *
+   * @return the number of cache hits
+   */
+  public long getCacheHits() {
+    return cache.getHits();
+  }
+
+  /**
+   * Returns the number of frames from {@code getShapesAt(int)} that had to be evaluated.
+   *
+   * @return the number of cache misses
+   */
+  public long getCacheMisses() {
+    return cache.getMisses();
   }
 
   @Override
   public String getDescription() {
-    return this.model.outputDescription();
+    return current().getDescription();
+  }
+
+  @Override
+  public void writeDescription(Appendable out) throws IllegalArgumentException,
+      IllegalStateException {
+    current().writeDescription(out);
+  }
+
+  @Override
+  public void describeTo(AnimationBuilder<?> builder) throws IllegalArgumentException {
+    current().describeTo(builder);
   }
 
   @Override
   public List<IROMotion> getMotionsFor(String id) throws IllegalArgumentException {
-    return this.model.getMotionsForShape(id);
+    return current().getMotionsFor(id);
+  }
+
+  @Override
+  public List<IROMotion> getMotionsFor(int handle) throws IllegalArgumentException {
+    return current().getMotionsFor(handle);
+  }
+
+  @Override
+  public int getHandle(String id) throws IllegalArgumentException {
+    return current().getHandle(id);
   }
 
   @Override
   public int[] getBounds() throws IllegalStateException {
-    return model.getBounds();
+    return current().getBounds();
   }
 
   @Override
   public int getFinalTick() {
-    return model.getFinalTick();
+    return current().getFinalTick();
+  }
+
+  @Override
+  public int getStartTick() {
+    return current().getStartTick();
   }
 
   @Override
   public List<String> getNames() {
-    return model.getNames();
+    return current().getNames();
   }
 
   @Override
@@ -59,8 +174,21 @@ public class ROAnimatorModelImpl implements IROAnimatorModel {
     return this;
   }
 
+  @Override
+  public IROAnimatorModel getSnapshot() {
+    if (pinned != null) {
+      return this;
+    }
+    return new ROAnimatorModelImpl(model, cache, model.getSnapshot());
+  }
+
   @Override
   public IColoredShape getShape(String id) {
-    return model.getShape(id);
+    return current().getShape(id);
+  }
+
+  @Override
+  public IColoredShape getShape(int handle) {
+    return current().getShape(handle);
   }
 }
@@ -0,0 +1,47 @@
+package cs3500.animator.model;
+
+/**
+ * Represents a shape that changed between two ticks, along with its index in the list of IDs of
+ * the model. Applying every delta between two ticks onto the shapes of the first tick gives the
+ * shapes of the second. The shapes of a whole frame can also be given as the changes from an empty
+ * frame. Immutable.
+ */
+public final class ShapeDelta {
+
+  private final int index; // Index of the shape in the list of IDs
+  private final IColoredShape shape; // State of the shape at the later tick
+
+  /**
+   * Constructs a delta for the shape at the given index.
+   *
+   * @param index The index of the shape in the list of IDs of the model
+   * @param shape The shape in its new state, with a size of -1 if it is no longer visible
+   * @throws IllegalArgumentException if the index is negative or the shape is null
+   */
+  public ShapeDelta(int index, IColoredShape shape) {
+    if (index < 0 || shape == null) {
+      throw new IllegalArgumentException("Invalid shape delta");
+    }
+    this.index = index;
+    this.shape = shape;
+  }
+
+  /**
+   * Returns the index of the shape in the list of IDs of the model, which is also its index in the
+   * list of shapes returned for a whole tick.
+   *
+   * @return the index of the shape
+   */
+  public int getIndex() {
+    return this.index;
+  }
+
+  /**
+   * Returns the shape in its new state. Its size is -1 if it is no longer visible.
+   *
+   * @return the shape in its new state
+   */
+  public IColoredShape getShape() {
+    return this.shape;
+  }
+}
@@ -0,0 +1,158 @@
+package cs3500.animator.model;
+
+/**
+ * Represents an index from the IDs of shapes to their integer handles. IDs are kept in a single
+ * open-addressing table with linear probing, so a lookup hashes the ID once and compares it with a
+ * few neighbouring slots, without any boxing or entry objects. Removed IDs leave a marker behind
+ * until the table is next resized.
+ */
+final class ShapeIdIndex {
+
+  private static final int INITIAL_CAPACITY = 16; // Must be a power of two
+  private static final String REMOVED = new String(""); // Marker for a removed ID, by reference
+
+  private String[] keys; // IDs, null for an empty slot, REMOVED for a removed one
+  private int[] values; // Handle of the ID in the same slot
+  private int size = 0; // Number of IDs in the index
+  private int used = 0; // Number of slots that are not empty, including removed ones
+
+  /**
+   * Constructs an empty index.
+   */
+  ShapeIdIndex() {
+    keys = new String[INITIAL_CAPACITY];
+    values = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Constructs an index holding the same IDs and handles as the given one, which later changes to
+   * either index do not affect.
+   *
+   * @param other The index to copy
+   */
+  ShapeIdIndex(ShapeIdIndex other) {
+    keys = other.keys.clone();
+    values = other.values.clone();
+    size = other.size;
+    used = other.used;
+  }
+
+  /**
+   * Returns the number of IDs in the index.
+   *
+   * @return the number of IDs
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns the handle of the given ID.
+   *
+   * @param id The ID to look up
+   * @return the handle of the ID, or -1 if it is null or not in the index
+   */
+  int get(String id) {
+    if (id == null) {
+      return -1;
+    }
+    int mask = keys.length - 1;
+    for (int slot = slotOf(id, mask); ; slot = (slot + 1) & mask) {
+      String key = keys[slot];
+      if (key == null) {
+        return -1;
+      }
+      if (key != REMOVED && key.equals(id)) {
+        return values[slot];
+      }
+    }
+  }
+
+  /**
+   * Maps the given ID to the given handle, replacing its previous handle if it was in the index.
+   *
+   * @param id The ID to add
+   * @param handle The handle of the ID
+   * @throws IllegalArgumentException if the ID is null
+   */
+  void put(String id, int handle) {
+    if (id == null) {
+      throw new IllegalArgumentException("Null ID");
+    }
+    // Keeps at least a third of the slots empty so that probes stay short
+    if ((used + 1) * 3 > keys.length * 2) {
+      resize(size * 3 >= keys.length ? keys.length * 2 : keys.length);
+    }
+    int mask = keys.length - 1;
+    int free = -1;
+    int slot = slotOf(id, mask);
+    for (String key = keys[slot]; key != null; key = keys[slot]) {
+      if (key == REMOVED) {
+        if (free < 0) {
+          free = slot;
+        }
+      } else if (key.equals(id)) {
+        values[slot] = handle;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    if (free < 0) {
+      free = slot;
+      used++;
+    }
+    keys[free] = id;
+    values[free] = handle;
+    size++;
+  }
+
+  /**
+   * Removes the given ID from the index.
+   *
+   * @param id The ID to remove
+   * @return true if the ID was in the index
+   */
+  boolean remove(String id) {
+    if (id == null) {
+      return false;
+    }
+    int mask = keys.length - 1;
+    for (int slot = slotOf(id, mask); keys[slot] != null; slot = (slot + 1) & mask) {
+      String key = keys[slot];
+      if (key != REMOVED && key.equals(id)) {
+        keys[slot] = REMOVED;
+        size--;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Rebuilds the table with the given capacity, dropping the markers of removed IDs
+  private void resize(int capacity) {
+    String[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new String[capacity];
+    values = new int[capacity];
+    int mask = capacity - 1;
+    for (int k = 0; k < oldKeys.length; k++) {
+      String key = oldKeys[k];
+      if (key != null && key != REMOVED) {
+        int slot = slotOf(key, mask);
+        while (keys[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = oldValues[k];
+      }
+    }
+    used = size;
+  }
+
+  // First slot to probe for the given ID
+  private static int slotOf(String id, int mask) {
+    // Mixes the bits of the hash so that similar IDs do not cluster
+    int hash = id.hashCode() * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+}
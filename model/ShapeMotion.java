@@ -2,8 +2,6 @@ package cs3500.animator.model;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
 
 /**
  * Represents motion for a shape with the start time, end time, and a list of final states.
@@ -12,7 +10,7 @@ public class ShapeMotion implements IMotion {
 
   private int start; // Starting time
   private int end; // Ending time
-  private List<String> states; // State the shape should be at end
+  private List<MotionState> states; // State the shape should be at end
 
   /**
    * Constructs a command for the shape with the specified start and end time with no state
@@ -54,41 +52,15 @@ public class ShapeMotion implements IMotion {
 
   @Override
   public void addState(String state) throws IllegalArgumentException {
+    // Parses the state once so it never has to be read as text again
+    states.add(MotionState.parse(state));
+  }
+
+  @Override
+  public void addState(MotionState state) throws IllegalArgumentException {
     if (state == null) {
       throw new IllegalArgumentException("Null state");
     }
-    Scanner scan = new Scanner(state);
-    String command;
-    try {
-      command = scan.next();
-    } catch (NoSuchElementException e) {
-      throw new IllegalArgumentException("No command found");
-    }
-    // Makes sure the command has enough parameters
-    switch (command) {
-      // Size and move only need 2 parameters
-      case "size":
-      case "move":
-        try {
-          scan.nextInt();
-          scan.nextInt();
-        } catch (NoSuchElementException e) {
-          throw new IllegalArgumentException("Not enough parameters given");
-        }
-        break;
-      // Color needs 3 parameters
-      case "color":
-        try {
-          scan.nextInt();
-          scan.nextInt();
-          scan.nextInt();
-        } catch (NoSuchElementException e) {
-          throw new IllegalArgumentException("Not enough RGB values given");
-        }
-        break;
-      default:
-        throw new IllegalArgumentException("Invalid command");
-    }
     states.add(state);
   }
 
@@ -101,7 +73,19 @@ public class ShapeMotion implements IMotion {
   public List<String> getStates() {
     List<String> result = new ArrayList<>();
     // Creates a new list to prevent tampering with the list of states
-    result.addAll(states);
+    for (MotionState state : states) {
+      result.add(state.toString());
+    }
     return result;
   }
+
+  @Override
+  public int getStateCount() {
+    return states.size();
+  }
+
+  @Override
+  public MotionState getState(int index) {
+    return states.get(index);
+  }
 }
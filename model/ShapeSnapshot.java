@@ -0,0 +1,118 @@
+package cs3500.animator.model;
+
+import java.awt.Color;
+
+/**
+ * Represents the state of a shape at a single moment, as handed out to views. Unlike
+ * {@code ColoredRectangle} and {@code ColoredEllipse}, a snapshot can never be changed, so the same
+ * snapshot may be shared between frames and views without copying it. Hidden shapes have a width
+ * and height of -1.
+ */
+public final class ShapeSnapshot implements IColoredShape {
+
+  private final ShapeType type; // Type of the shape
+  private final int x; // x coordinate
+  private final int y; // y coordinate
+  private final int width; // width
+  private final int height; // height
+  private final int rgb; // Color of the shape, packed as 0xRRGGBB
+
+  /**
+   * Constructs a snapshot of a shape with the given parameters.
+   *
+   * @param type The type of the shape
+   * @param x The x coordinate
+   * @param y The y coordinate
+   * @param width The width
+   * @param height The height
+   * @param color The color
+   * @throws IllegalArgumentException if the type or color is null
+   */
+  public ShapeSnapshot(ShapeType type, int x, int y, int width, int height, Color color) {
+    this(type, x, y, width, height, color == null ? -1 : color.getRGB() & 0xFFFFFF);
+  }
+
+  /**
+   * Constructs a snapshot of a shape with the given parameters and packed color.
+   *
+   * @param type The type of the shape
+   * @param x The x coordinate
+   * @param y The y coordinate
+   * @param width The width
+   * @param height The height
+   * @param rgb The color, packed as 0xRRGGBB
+   * @throws IllegalArgumentException if the type is null or the color is not within 0xRRGGBB
+   */
+  public ShapeSnapshot(ShapeType type, int x, int y, int width, int height, int rgb) {
+    if (type == null || (rgb & ~0xFFFFFF) != 0) {
+      throw new IllegalArgumentException("Null type or invalid color");
+    }
+    this.type = type;
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+    this.rgb = rgb;
+  }
+
+  /**
+   * Returns the color of the shape as a new {@code Color}. Use {@code getRGB()} where possible, as
+   * it does not create an object.
+   *
+   * @return the color of the shape
+   */
+  @Override
+  public Color getColor() {
+    return new Color(this.rgb);
+  }
+
+  @Override
+  public int getRGB() {
+    return this.rgb;
+  }
+
+  /**
+   * Snapshots are read-only.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public void setColor(Color color) {
+    throw new UnsupportedOperationException("Shape snapshots cannot be changed");
+  }
+
+  @Override
+  public int getY() {
+    return this.y;
+  }
+
+  @Override
+  public int getX() {
+    return this.x;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Snapshots are read-only.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public void setShape(int x, int y, int width, int height) {
+    throw new UnsupportedOperationException("Shape snapshots cannot be changed");
+  }
+
+  @Override
+  public ShapeType getShapeType() {
+    return this.type;
+  }
+}
@@ -0,0 +1,128 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Represents the span of ticks covered by the motions of every shape in a model, from the start of
+ * its earliest motion to the end of its latest one. The starts and ends of all spans are kept in
+ * ordered multisets, so the start and final tick of the whole animation stay correct in
+ * logarithmic time as shapes and motions are added, edited, and removed.
+ */
+final class ShapeSpans {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final TreeMap<Integer, Integer> starts; // Start of each span, mapped to its count
+  private final TreeMap<Integer, Integer> ends; // End of each span, mapped to its count
+  private int[] firsts; // Start of the span of each handle
+  private int[] lasts; // End of the span of each handle
+  private boolean[] tracked; // If the handle has a span, meaning it has motions
+
+  /**
+   * Constructs an empty set of spans.
+   */
+  ShapeSpans() {
+    starts = new TreeMap<>();
+    ends = new TreeMap<>();
+    firsts = new int[INITIAL_CAPACITY];
+    lasts = new int[INITIAL_CAPACITY];
+    tracked = new boolean[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Sets the span of the given shape to cover all of the given motions.
+   *
+   * @param handle The handle of the shape
+   * @param motions The motions of the shape, which may be empty
+   */
+  void update(int handle, List<IMotion> motions) {
+    remove(handle);
+    if (motions.isEmpty()) {
+      return;
+    }
+    int first = Integer.MAX_VALUE;
+    int last = Integer.MIN_VALUE;
+    for (IMotion motion : motions) {
+      first = Math.min(first, motion.getStart());
+      last = Math.max(last, motion.getEnd());
+    }
+    track(handle, first, last);
+  }
+
+  /**
+   * Widens the span of the given shape to cover a motion added to it.
+   *
+   * @param handle The handle of the shape
+   * @param start The start tick of the motion
+   * @param end The end tick of the motion
+   */
+  void extend(int handle, int start, int end) {
+    int first = start;
+    int last = end;
+    if (handle < tracked.length && tracked[handle]) {
+      first = Math.min(first, firsts[handle]);
+      last = Math.max(last, lasts[handle]);
+      remove(handle);
+    }
+    track(handle, first, last);
+  }
+
+  /**
+   * Removes the span of the given shape, if it has one.
+   *
+   * @param handle The handle of the shape
+   */
+  void remove(int handle) {
+    if (handle >= tracked.length || !tracked[handle]) {
+      return;
+    }
+    decrement(starts, firsts[handle]);
+    decrement(ends, lasts[handle]);
+    tracked[handle] = false;
+  }
+
+  /**
+   * Returns the earliest tick any motion starts at.
+   *
+   * @return the start tick of the animation, or 0 if there are no motions
+   */
+  int getStartTick() {
+    return starts.isEmpty() ? 0 : starts.firstKey();
+  }
+
+  /**
+   * Returns the latest tick any motion ends at.
+   *
+   * @return the final tick of the animation, or 0 if there are no motions
+   */
+  int getFinalTick() {
+    return ends.isEmpty() ? 0 : ends.lastKey();
+  }
+
+  // Records the span of the given shape, which must not have one yet
+  private void track(int handle, int first, int last) {
+    if (handle >= tracked.length) {
+      int capacity = Math.max(handle + 1, tracked.length * 2);
+      firsts = Arrays.copyOf(firsts, capacity);
+      lasts = Arrays.copyOf(lasts, capacity);
+      tracked = Arrays.copyOf(tracked, capacity);
+    }
+    firsts[handle] = first;
+    lasts[handle] = last;
+    tracked[handle] = true;
+    starts.merge(first, 1, Integer::sum);
+    ends.merge(last, 1, Integer::sum);
+  }
+
+  // Removes one occurrence of the tick from the multiset
+  private static void decrement(TreeMap<Integer, Integer> ticks, int tick) {
+    int count = ticks.get(tick);
+    if (count == 1) {
+      ticks.remove(tick);
+    } else {
+      ticks.put(tick, count - 1);
+    }
+  }
+}
@@ -0,0 +1,451 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the compiled timeline of a single shape. The full state of the shape is stored at the
+ * end of each motion, so the state at any tick can be computed directly from the timeline without
+ * depending on previously evaluated ticks. Each motion starts where the previous one left off, so
+ * its starting state is simply the end state of the previous motion, or the original state for the
+ * first one, and is not stored again. The states of each motion are kept as
+ * well, so the timeline also serves as a record of the motions it was compiled from. Immutable once
+ * constructed, apart from a cursor that remembers the last motion looked up and the last snapshot
+ * created, which speed up sequential playback.
+ */
+final class ShapeTimeline {
+
+  // Indices of each value within a state
+  static final int X = 0;
+  static final int Y = 1;
+  static final int WIDTH = 2;
+  static final int HEIGHT = 3;
+  static final int RED = 4;
+  static final int GREEN = 5;
+  static final int BLUE = 6;
+  static final int CHANNELS = 7; // Number of values in a state
+  private static final MotionState[] NO_STATES = new MotionState[0];
+
+  private final ShapeType type; // Type of the shape
+  private final int[] initial; // State of the shape when it was added
+  private final int[] starts; // Start tick of each motion, in sorted order
+  private final int[] ends; // End tick of each motion
+  private final int[] endValues; // State at the end of each motion, CHANNELS per motion
+  private final MotionState[][] states; // States of each motion, in the order they were added
+  private final long[] reciprocals; // 2^32 / duration of each motion rounded up, 0 if not exact
+  private int cursor = -1; // Index of the last motion looked up, only used as a hint
+  private ShapeSnapshot last; // Last snapshot created, shared if the next one is the same
+
+  /**
+   * Compiles the timeline of a shape from its original state and its motions.
+   *
+   * @param shape The shape in its original state
+   * @param motions The motions of the shape, sorted by start time
+   * @throws IllegalArgumentException if either parameter is null
+   */
+  ShapeTimeline(IColoredShape shape, List<IMotion> motions) {
+    this(shape == null ? null : shape.getShapeType(), shape == null ? null
+        : new int[]{shape.getX(), shape.getY(), shape.getWidth(), shape.getHeight(),
+            (shape.getRGB() >> 16) & 0xFF, (shape.getRGB() >> 8) & 0xFF, shape.getRGB() & 0xFF},
+        motions);
+  }
+
+  /**
+   * Compiles the timeline of a shape from its type, its original state, and its motions.
+   *
+   * @param type The type of the shape
+   * @param initial The original state, in the order of x, y, width, height, red, green, blue
+   * @param motions The motions of the shape, sorted by start time
+   * @throws IllegalArgumentException if any parameter is null or the state is too short
+   */
+  ShapeTimeline(ShapeType type, int[] initial, List<IMotion> motions) {
+    if (type == null || initial == null || motions == null || initial.length < CHANNELS) {
+      throw new IllegalArgumentException("Null parameters");
+    }
+    int count = motions.size();
+    this.type = type;
+    this.initial = initial.clone();
+    starts = new int[count];
+    ends = new int[count];
+    endValues = new int[count * CHANNELS];
+    reciprocals = new long[count];
+    states = new MotionState[count][];
+    // Each motion starts where the previous one left off
+    int[] current = this.initial.clone();
+    for (int k = 0; k < count; k++) {
+      IMotion motion = motions.get(k);
+      starts[k] = motion.getStart();
+      ends[k] = motion.getEnd();
+      int stateCount = motion.getStateCount();
+      states[k] = stateCount == 0 ? NO_STATES : new MotionState[stateCount];
+      for (int s = 0; s < stateCount; s++) {
+        states[k][s] = motion.getState(s);
+        applyState(states[k][s], current);
+      }
+      System.arraycopy(current, 0, endValues, k * CHANNELS, CHANNELS);
+      reciprocals[k] = reciprocal(k);
+    }
+  }
+
+  /**
+   * Returns a multiplier that divides the numerators of the given motion by its duration with a
+   * multiplication and a shift, as {@code (numerator * reciprocal) >>> 32}. This is exact as long
+   * as the numerator is non-negative and its product with the rounding error of the reciprocal
+   * stays below 2^32, which holds for the small values and durations of most motions.
+   *
+   * @param motion Index of the motion
+   * @return the reciprocal of the duration, or 0 if it would not always divide exactly
+   */
+  private long reciprocal(int motion) {
+    long duration = ends[motion] - starts[motion];
+    if (duration <= 0) {
+      return 0;
+    }
+    long max = 0;
+    for (int c = 0; c < CHANNELS; c++) {
+      int from = startValue(motion, c);
+      int to = endValues[motion * CHANNELS + c];
+      if (from < 0 || to < 0) {
+        return 0;
+      }
+      max = Math.max(max, Math.max(from, to));
+    }
+    // Numerators stay below (max + 1) * duration, as the result is at most max
+    long maxNumerator = (max + 1) * duration;
+    long reciprocal = (1L << 32) / duration + 1;
+    long error = reciprocal * duration - (1L << 32);
+    if (maxNumerator >= (1L << 31) || maxNumerator * error >= (1L << 32)) {
+      return 0;
+    }
+    return reciprocal;
+  }
+
+  /**
+   * Returns if the given motion divides by multiplying with the reciprocal of its duration, rather
+   * than with a division per value.
+   *
+   * @param motion Index of the motion
+   * @return true if the motion has an exact reciprocal
+   */
+  boolean hasReciprocal(int motion) {
+    return reciprocals[motion] != 0;
+  }
+
+  /**
+   * Applies the given state onto the given values, replacing the values it sets.
+   *
+   * @param state The state to apply
+   * @param values The values to update, in the order of x, y, width, height, red, green, blue
+   */
+  static void applyState(MotionState state, int[] values) {
+    switch (state.getType()) {
+      case MOVE:
+        values[X] = state.getFirst();
+        values[Y] = state.getSecond();
+        break;
+      case SIZE:
+        values[WIDTH] = state.getFirst();
+        values[HEIGHT] = state.getSecond();
+        break;
+      case COLOR:
+        values[RED] = state.getFirst();
+        values[GREEN] = state.getSecond();
+        values[BLUE] = state.getThird();
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported state change: " + state);
+    }
+  }
+
+  /**
+   * Returns the type of the shape.
+   *
+   * @return the {@code ShapeType} of the shape
+   */
+  ShapeType getShapeType() {
+    return this.type;
+  }
+
+  /**
+   * Returns the shape in the state it was in when it was added.
+   *
+   * @return a new snapshot of the original shape
+   */
+  IColoredShape getOriginal() {
+    return createShape(type, initial, true);
+  }
+
+  /**
+   * Returns the motion at the given index as it was when the timeline was compiled.
+   *
+   * @param motion Index of the motion
+   * @return a read-only copy of the motion
+   */
+  IROMotion getMotion(int motion) {
+    return new MotionSnapshot(starts[motion], ends[motion], states[motion]);
+  }
+
+  /**
+   * Rebuilds the motions the timeline was compiled from, so that a model can go back to editing
+   * them. The motions share their states with the timeline, as states never change.
+   *
+   * @return new motions equal to the ones the timeline was compiled from, in the same order
+   */
+  List<IMotion> toMotions() {
+    List<IMotion> result = new ArrayList<>(starts.length);
+    for (int k = 0; k < starts.length; k++) {
+      // Keyframe edits can leave a motion ending before it starts, which the constructor rejects
+      IMotion motion = new ShapeMotion(starts[k], starts[k]);
+      motion.setEnd(ends[k]);
+      for (MotionState state : states[k]) {
+        motion.addState(state);
+      }
+      result.add(motion);
+    }
+    return result;
+  }
+
+  /**
+   * Returns a rough estimate of the memory held by the timeline in bytes, counting its arrays but
+   * not the states, which are shared with the motions it was compiled from.
+   *
+   * @return the estimated size of the timeline
+   */
+  long estimatedBytes() {
+    long count = starts.length;
+    // Headers of the object and its arrays, then the contents of each array
+    long bytes = 64 + 6 * 16;
+    bytes += count * (4 + 4 + 8 + CHANNELS * 4 + 4);
+    for (MotionState[] motionStates : states) {
+      bytes += motionStates.length == 0 ? 0 : 16 + motionStates.length * 4;
+    }
+    return bytes;
+  }
+
+  /**
+   * Returns the number of motions in the timeline.
+   *
+   * @return integer of the number of motions
+   */
+  int size() {
+    return starts.length;
+  }
+
+  /**
+   * Returns the start tick of the motion at the given index.
+   *
+   * @param motion Index of the motion
+   * @return the start tick of the motion
+   */
+  int getStart(int motion) {
+    return starts[motion];
+  }
+
+  /**
+   * Returns the end tick of the motion at the given index.
+   *
+   * @param motion Index of the motion
+   * @return the end tick of the motion
+   */
+  int getEnd(int motion) {
+    return ends[motion];
+  }
+
+  /**
+   * Returns a value of the state of the shape at the start of the motion at the given index.
+   *
+   * @param motion Index of the motion
+   * @param channel Index of the value, such as {@code X} or {@code RED}
+   * @return the value at the start of the motion
+   */
+  int startValue(int motion, int channel) {
+    return motion == 0 ? initial[channel] : endValues[(motion - 1) * CHANNELS + channel];
+  }
+
+  /**
+   * Returns a value of the state of the shape at the end of the motion at the given index.
+   *
+   * @param motion Index of the motion
+   * @param channel Index of the value, such as {@code X} or {@code RED}
+   * @return the value at the end of the motion
+   */
+  int endValue(int motion, int channel) {
+    return endValues[motion * CHANNELS + channel];
+  }
+
+  /**
+   * Returns the first tick the shape is visible at, which is the start of its first motion.
+   *
+   * @return the first visible tick
+   * @throws IllegalStateException if the timeline has no motions
+   */
+  int getFirstTick() {
+    if (starts.length == 0) {
+      throw new IllegalStateException("No motions in timeline");
+    }
+    return starts[0];
+  }
+
+  /**
+   * Returns the last tick the shape is visible at, which is the end of its last motion.
+   *
+   * @return the last visible tick
+   * @throws IllegalStateException if the timeline has no motions
+   */
+  int getLastTick() {
+    if (ends.length == 0) {
+      throw new IllegalStateException("No motions in timeline");
+    }
+    return ends[ends.length - 1];
+  }
+
+  /**
+   * Computes the state of the shape at the given tick and writes it into the given array in the
+   * order of x, y, width, height, red, green, blue. The shape is not visible before its first
+   * motion starts or after its last motion ends; the array then holds its nearest state.
+   *
+   * @param tick The tick to compute the state at
+   * @param out Array of at least {@code CHANNELS} integers to write into
+   * @return true if the shape is visible at the tick
+   */
+  boolean valuesAt(int tick, int[] out) {
+    int index = indexAt(tick);
+    if (index < 0) {
+      // Not started yet, or no motions at all
+      System.arraycopy(initial, 0, out, 0, CHANNELS);
+      return false;
+    }
+    int base = index * CHANNELS;
+    int start = starts[index];
+    int end = ends[index];
+    if (tick >= end) {
+      // Motion has finished, holds its end state until the next one starts
+      System.arraycopy(endValues, base, out, 0, CHANNELS);
+      return index < starts.length - 1 || tick == end;
+    }
+    // Each value is start + (end - start) * elapsed / duration, truncated towards zero
+    int duration = end - start;
+    int elapsed = tick - start;
+    long reciprocal = reciprocals[index];
+    // The motion starts from the end of the previous one, or from the original state
+    int[] starting = index == 0 ? initial : endValues;
+    int fromBase = index == 0 ? 0 : base - CHANNELS;
+    if (reciprocal != 0) {
+      for (int c = 0; c < CHANNELS; c++) {
+        long from = starting[fromBase + c];
+        long numerator = from * duration + (endValues[base + c] - from) * elapsed;
+        out[c] = (int) ((numerator * reciprocal) >>> 32);
+      }
+    } else {
+      for (int c = 0; c < CHANNELS; c++) {
+        long from = starting[fromBase + c];
+        long numerator = from * duration + (endValues[base + c] - from) * elapsed;
+        out[c] = (int) (numerator / duration);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns a snapshot of the shape at the given tick, which is given a size of -1 if it is not
+   * visible. Snapshots are immutable, so the last one created is returned again when the shape
+   * has not changed since.
+   *
+   * @param tick The tick to compute the state at
+   * @param values Array of at least {@code CHANNELS} integers to use as scratch space
+   * @return the shape at the tick
+   */
+  IColoredShape shapeAt(int tick, int[] values) {
+    boolean visible = valuesAt(tick, values);
+    return snapshot(values, visible);
+  }
+
+  /**
+   * Returns a snapshot of this shape with the given values, reusing the last snapshot created if
+   * it matches.
+   *
+   * @param values The values, in the order of x, y, width, height, red, green, blue
+   * @param visible If the shape is visible
+   * @return the snapshot of the shape
+   */
+  IColoredShape snapshot(int[] values, boolean visible) {
+    // The snapshot may be read by several threads, but any snapshot it holds is only a hint
+    ShapeSnapshot previous = last;
+    int width = visible ? values[WIDTH] : -1;
+    int height = visible ? values[HEIGHT] : -1;
+    int rgb = rgb(values);
+    if (previous != null && previous.getRGB() == rgb && previous.getX() == values[X]
+        && previous.getY() == values[Y] && previous.getWidth() == width
+        && previous.getHeight() == height) {
+      return previous;
+    }
+    ShapeSnapshot result = new ShapeSnapshot(type, values[X], values[Y], width, height, rgb);
+    last = result;
+    return result;
+  }
+
+  /**
+   * Creates a new snapshot of a shape with the given values, which is given a size of -1 if
+   * invisible.
+   *
+   * @param type The type of the shape
+   * @param values The values, in the order of x, y, width, height, red, green, blue
+   * @param visible If the shape is visible
+   * @return the new shape
+   */
+  static IColoredShape createShape(ShapeType type, int[] values, boolean visible) {
+    int width = visible ? values[WIDTH] : -1;
+    int height = visible ? values[HEIGHT] : -1;
+    return new ShapeSnapshot(type, values[X], values[Y], width, height, rgb(values));
+  }
+
+  // Packs the color channels of the given values as 0xRRGGBB, which are in [0, 255] since every
+  // state and original color is checked when it is created
+  private static int rgb(int[] values) {
+    return (values[RED] << 16) | (values[GREEN] << 8) | values[BLUE];
+  }
+
+  /**
+   * Returns the index of the last motion starting at or before the given tick. Playback usually
+   * asks for the same or the next motion as the previous call, so the cursor is checked first and
+   * a binary search over the start times is only used when seeking.
+   *
+   * @param tick The tick to search for
+   * @return the index of the motion, or -1 if no motion has started by the tick
+   */
+  int indexAt(int tick) {
+    // The cursor may be read by several threads, but any value it holds is only a hint
+    int hint = cursor;
+    if (hint >= 0 && starts[hint] <= tick) {
+      int last = starts.length - 1;
+      // Advances the cursor past motions that have started since the last lookup
+      for (int steps = 0; hint < last && starts[hint + 1] <= tick && steps < 2; steps++) {
+        hint++;
+      }
+      if (hint == last || starts[hint + 1] > tick) {
+        cursor = hint;
+        return hint;
+      }
+    }
+    int result = binarySearch(tick);
+    cursor = result;
+    return result;
+  }
+
+  // Binary search for the last motion starting at or before the given tick
+  private int binarySearch(int tick) {
+    int low = 0;
+    int high = starts.length - 1;
+    int result = -1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (starts[mid] <= tick) {
+        result = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return result;
+  }
+}
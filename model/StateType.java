@@ -0,0 +1,61 @@
+package cs3500.animator.model;
+
+/**
+ * Represents the kinds of state changes a {@code IMotion} can hold.
+ */
+public enum StateType {
+  /**
+   * Represents a change in position, given as x and y.
+   */
+  MOVE("move", 2),
+  /**
+   * Represents a change in size, given as width and height.
+   */
+  SIZE("size", 2),
+  /**
+   * Represents a change in color, given as red, green, and blue values.
+   */
+  COLOR("color", 3);
+
+  private final String keyword; // Keyword used in the textual form of the state
+  private final int paramCount; // Number of integer parameters the state takes
+
+  StateType(String keyword, int paramCount) {
+    this.keyword = keyword;
+    this.paramCount = paramCount;
+  }
+
+  /**
+   * Returns the keyword used for this kind of state in its textual form, such as "move".
+   *
+   * @return the keyword of the state
+   */
+  public String getKeyword() {
+    return this.keyword;
+  }
+
+  /**
+   * Returns the number of integer parameters this kind of state takes.
+   *
+   * @return the number of parameters
+   */
+  public int getParamCount() {
+    return this.paramCount;
+  }
+
+  /**
+   * Returns the state type matching the given keyword.
+   *
+   * @param keyword The keyword, such as "move", "size", or "color"
+   * @return the matching {@code StateType}
+   * @throws IllegalArgumentException if the keyword does not match any state type
+   */
+  public static StateType fromKeyword(String keyword) throws IllegalArgumentException {
+    for (StateType type : values()) {
+      if (type.keyword.equals(keyword)) {
+        return type;
+      }
+    }
+    throw new IllegalArgumentException("Invalid command");
+  }
+}
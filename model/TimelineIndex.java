@@ -0,0 +1,217 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents an index over the compiled timelines of every shape in a model that answers which
+ * shapes are visible at a given tick without checking every shape. Shapes are identified by their
+ * position in the model's order of IDs. A shape is visible from the start of its first motion to
+ * the end of its last one, which is stored in a centered interval tree. Immutable.
+ */
+final class TimelineIndex {
+
+  private final ShapeTimeline[] timelines; // Timelines in the order of the model's IDs
+  private final Node root; // Root of the interval tree, null if no shape is ever visible
+
+  /**
+   * Constructs an index over the given timelines.
+   *
+   * @param timelines The timelines of the shapes, in the order of the model's IDs
+   * @throws IllegalArgumentException if the given array is null
+   */
+  TimelineIndex(ShapeTimeline[] timelines) {
+    if (timelines == null) {
+      throw new IllegalArgumentException("Null timelines");
+    }
+    this.timelines = timelines;
+    int count = 0;
+    int[] positions = new int[timelines.length];
+    for (int k = 0; k < timelines.length; k++) {
+      // Shapes without motions are never visible
+      if (timelines[k].size() > 0) {
+        positions[count++] = k;
+      }
+    }
+    root = build(Arrays.copyOf(positions, count));
+  }
+
+  /**
+   * Returns the number of shapes in the index.
+   *
+   * @return integer of the number of shapes
+   */
+  int size() {
+    return timelines.length;
+  }
+
+  /**
+   * Returns the timeline of the shape at the given position.
+   *
+   * @param position The position of the shape in the model's order of IDs
+   * @return the timeline of the shape
+   * @throws IndexOutOfBoundsException if the position is not within [0, size())
+   */
+  ShapeTimeline get(int position) {
+    return timelines[position];
+  }
+
+  /**
+   * Returns the positions of the shapes visible at the given tick, in ascending order so that they
+   * keep the order they are drawn in.
+   *
+   * @param tick The tick to find visible shapes at
+   * @return array of positions of the visible shapes
+   */
+  int[] activeAt(int tick) {
+    int[] result = new int[16];
+    int count = 0;
+    Node node = root;
+    while (node != null) {
+      int[] hits = tick < node.center ? node.byStart : node.byEnd;
+      for (int position : hits) {
+        ShapeTimeline timeline = timelines[position];
+        // Lists are sorted so that the scan can stop at the first miss
+        if (tick < node.center ? first(timeline) > tick : last(timeline) < tick) {
+          break;
+        }
+        if (count == result.length) {
+          result = Arrays.copyOf(result, count * 2);
+        }
+        result[count++] = position;
+      }
+      if (tick == node.center) {
+        break;
+      }
+      node = tick < node.center ? node.left : node.right;
+    }
+    result = Arrays.copyOf(result, count);
+    Arrays.sort(result);
+    return result;
+  }
+
+  /**
+   * Returns the shapes that changed between the two given ticks, in ascending order of position.
+   * Only shapes visible at either tick are checked, since a shape hidden at both cannot have
+   * visibly changed.
+   *
+   * @param from The earlier frame's tick
+   * @param to The later frame's tick
+   * @return List of the shapes whose visibility, position, size, or color differ, in their state
+   *         at the later tick
+   */
+  List<ShapeDelta> changesBetween(int from, int to) {
+    List<ShapeDelta> result = new ArrayList<>();
+    if (from == to) {
+      return result;
+    }
+    int[] before = activeAt(from);
+    int[] after = activeAt(to);
+    int[] oldValues = new int[ShapeTimeline.CHANNELS];
+    int[] newValues = new int[ShapeTimeline.CHANNELS];
+    int i = 0;
+    int j = 0;
+    // Merges the two sorted lists of positions
+    while (i < before.length || j < after.length) {
+      int position;
+      if (j == after.length || (i < before.length && before[i] < after[j])) {
+        position = before[i++];
+      } else if (i == before.length || after[j] < before[i]) {
+        position = after[j++];
+      } else {
+        position = before[i++];
+        j++;
+      }
+      ShapeTimeline timeline = timelines[position];
+      boolean wasVisible = timeline.valuesAt(from, oldValues);
+      boolean visible = timeline.valuesAt(to, newValues);
+      if (wasVisible != visible || !Arrays.equals(oldValues, newValues)) {
+        result.add(new ShapeDelta(position, timeline.snapshot(newValues, visible)));
+      }
+    }
+    return result;
+  }
+
+  // Builds the subtree holding the intervals of the given positions
+  private Node build(int[] positions) {
+    if (positions.length == 0) {
+      return null;
+    }
+    // Picks the median of the start and end ticks as the center
+    int[] points = new int[positions.length * 2];
+    for (int k = 0; k < positions.length; k++) {
+      points[2 * k] = first(timelines[positions[k]]);
+      points[2 * k + 1] = last(timelines[positions[k]]);
+    }
+    Arrays.sort(points);
+    int center = points[positions.length];
+
+    int[] left = new int[positions.length];
+    int[] right = new int[positions.length];
+    int[] overlapping = new int[positions.length];
+    int leftCount = 0;
+    int rightCount = 0;
+    int overlapCount = 0;
+    for (int position : positions) {
+      ShapeTimeline timeline = timelines[position];
+      if (last(timeline) < center) {
+        left[leftCount++] = position;
+      } else if (first(timeline) > center) {
+        right[rightCount++] = position;
+      } else {
+        overlapping[overlapCount++] = position;
+      }
+    }
+    Node node = new Node(center);
+    node.byStart = sortedBy(Arrays.copyOf(overlapping, overlapCount), true);
+    node.byEnd = sortedBy(Arrays.copyOf(overlapping, overlapCount), false);
+    node.left = build(Arrays.copyOf(left, leftCount));
+    node.right = build(Arrays.copyOf(right, rightCount));
+    return node;
+  }
+
+  // Sorts positions by ascending first tick, or by descending last tick
+  private int[] sortedBy(int[] positions, boolean byStart) {
+    long[] keys = new long[positions.length];
+    for (int k = 0; k < positions.length; k++) {
+      ShapeTimeline timeline = timelines[positions[k]];
+      long key = byStart ? first(timeline) : -(long) last(timeline);
+      // Packs the key and the position so that a primitive sort can be used
+      keys[k] = (key << 32) | positions[k];
+    }
+    Arrays.sort(keys);
+    int[] result = new int[positions.length];
+    for (int k = 0; k < keys.length; k++) {
+      result[k] = (int) keys[k];
+    }
+    return result;
+  }
+
+  // First tick the timeline is visible at
+  private static int first(ShapeTimeline timeline) {
+    return timeline.getFirstTick();
+  }
+
+  // Last tick the timeline is visible at
+  private static int last(ShapeTimeline timeline) {
+    return timeline.getLastTick();
+  }
+
+  /**
+   * Represents a node of the interval tree. Holds the intervals containing its center, sorted both
+   * by start and by end, and the subtrees of intervals entirely before and after its center.
+   */
+  private static final class Node {
+
+    private final int center; // Tick all intervals in this node contain
+    private int[] byStart; // Positions sorted by ascending first tick
+    private int[] byEnd; // Positions sorted by descending last tick
+    private Node left; // Intervals ending before the center
+    private Node right; // Intervals starting after the center
+
+    private Node(int center) {
+      this.center = center;
+    }
+  }
+}
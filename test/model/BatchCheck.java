@@ -0,0 +1,110 @@
+package cs3500.animator.model;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that committing a batch of edits leaves a model the same as making the same edits one at
+ * a time. For each seed, the same 300 random edits (shapes added and removed, overlapping motions,
+ * keyframes added and removed) are made to two empty models of each kind, one of them inside a
+ * batch, and the two are compared by their descriptions and by every shape at every tick.
+ *
+ * <p>Compile together with the sources, and run with
+ * {@code java cs3500.animator.model.BatchCheck [seeds]}, 200 seeds by default. Prints the number
+ * of runs that differ, and exits with status 1 if any do.</p>
+ */
+final class BatchCheck {
+
+  private static final int EDITS = 300; // Edits made in each run
+  private static final int SHAPES = 4; // IDs edits are made to, so that edits overlap
+  private static final int TICKS = 200; // Ticks compared, past the end of every motion
+
+  // Not instantiable
+  private BatchCheck() {
+  }
+
+  /**
+   * Runs the check.
+   *
+   * @param args The number of seeds to run, optionally
+   */
+  public static void main(String[] args) {
+    int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int runs = 0;
+    int differ = 0;
+    for (int kind = 0; kind < 2; kind++) {
+      for (long seed = 0; seed < seeds; seed++) {
+        IAnimatorModel sequential = create(kind);
+        edit(sequential, seed);
+        IAnimatorModel batched = create(kind);
+        batched.beginBatch();
+        edit(batched, seed);
+        batched.commitBatch();
+        runs++;
+        if (!describe(sequential).equals(describe(batched))) {
+          differ++;
+          System.out.println(sequential.getClass().getSimpleName() + " differs for seed " + seed);
+        }
+      }
+    }
+    System.out.println(differ + " of " + runs + " runs differ");
+    if (differ > 0) {
+      System.exit(1);
+    }
+  }
+
+  // Empty model of the given kind
+  private static IAnimatorModel create(int kind) {
+    return kind == 0 ? new IAnimatorModelImpl() : new ArrayAnimatorModel();
+  }
+
+  // Makes the random edits of the given seed, skipping any the model rejects
+  private static void edit(IAnimatorModel model, long seed) {
+    Random random = new Random(seed);
+    for (int step = 0; step < EDITS; step++) {
+      String id = "s" + random.nextInt(SHAPES);
+      try {
+        switch (random.nextInt(5)) {
+          case 0:
+            model.addShape(ShapeType.RECTANGLE, id, 1, 2, 3, 4, 5, 6, 7);
+            break;
+          case 1:
+            model.addKeyframe(id, random.nextBoolean() ? "move" : "size", random.nextInt(120),
+                random.nextInt(9), random.nextInt(9));
+            break;
+          case 2:
+            model.removeKeyframe(id, random.nextInt(120));
+            break;
+          case 3:
+            if (random.nextInt(10) == 0) {
+              model.removeShape(id);
+            }
+            break;
+          default:
+            int start = random.nextInt(100);
+            IMotion motion = new ShapeMotion(start, start + random.nextInt(25));
+            motion.addState(MotionState.move(random.nextInt(9), random.nextInt(9)));
+            model.addMotion(motion, id);
+        }
+      } catch (IllegalArgumentException e) {
+        // Rejected the same way with or without a batch
+      }
+    }
+  }
+
+  // Description of the model, followed by every shape at every tick
+  private static String describe(IAnimatorModel model) {
+    StringBuilder result = new StringBuilder(model.outputDescription());
+    result.append(model.getStartTick()).append(' ').append(model.getFinalTick()).append('\n');
+    for (int tick = 0; tick < TICKS; tick++) {
+      List<IColoredShape> shapes = model.getShapesAtTick(tick);
+      for (IColoredShape shape : shapes) {
+        result.append(shape.getShapeType()).append(' ').append(shape.getX()).append(' ')
+            .append(shape.getY()).append(' ').append(shape.getWidth()).append(' ')
+            .append(shape.getHeight()).append(' ').append(shape.getRGB()).append(';');
+      }
+      result.append('\n');
+    }
+    return result.toString();
+  }
+}
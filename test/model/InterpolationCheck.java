@@ -0,0 +1,165 @@
+package cs3500.animator.model;
+
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Checks that the integer interpolation of {@code ShapeTimeline} matches exact truncation, and
+ * times it against the floating point formula it replaced. Random motions are compiled into
+ * timelines. Nine in ten are small, with values up to 1000 and durations up to 2000, most of which
+ * divide by their reciprocal; the rest are large, with values up to 100000, positions that may be
+ * negative, and durations up to 20000, which divide value by value. Being longer, the large ones
+ * cover about half of the values checked. Every value of every tick of each motion is compared
+ * with {@code start + (end - start) * elapsed / duration} truncated towards zero, which long
+ * arithmetic computes exactly for such values, until the given number of values has been checked.
+ * The old formula is checked alongside for comparison only.
+ *
+ * <p>Compile together with the sources, and run with
+ * {@code java cs3500.animator.model.InterpolationCheck [values]}, 56000000 values by default.
+ * Prints the number of values that differ, and exits with status 1 if the timeline gets any
+ * wrong.</p>
+ */
+final class InterpolationCheck {
+
+  private static final int MAX_VALUE = 100000; // Largest position or size
+  private static final int MAX_DURATION = 20000; // Longest motion
+  private static final int SMALL_VALUE = 1000; // Largest position or size of a small motion
+  private static final int SMALL_DURATION = 2000; // Longest small motion
+  private static final int SHAPES = 10000; // Shapes in each frame timed
+  private static final int TICKS = 600; // Frames timed
+
+  // Not instantiable
+  private InterpolationCheck() {
+  }
+
+  /**
+   * Runs the check, then the timing.
+   *
+   * @param args The number of values to check, optionally
+   */
+  public static void main(String[] args) {
+    long target = args.length > 0 ? Long.parseLong(args[0]) : 56000000L;
+    Random random = new Random(1);
+    int[] from = new int[ShapeTimeline.CHANNELS];
+    int[] to = new int[ShapeTimeline.CHANNELS];
+    int[] out = new int[ShapeTimeline.CHANNELS];
+    long values = 0;
+    long wrong = 0;
+    long oldWrong = 0;
+    int motions = 0;
+    int exact = 0;
+    long exactValues = 0;
+    while (values < target) {
+      boolean small = random.nextInt(10) > 0;
+      int bound = small ? SMALL_VALUE : MAX_VALUE;
+      boolean negative = !small || random.nextInt(4) == 0;
+      randomState(random, bound, negative, from);
+      randomState(random, bound, negative, to);
+      int start = random.nextInt(1000);
+      int duration = 1 + random.nextInt(small ? SMALL_DURATION : MAX_DURATION);
+      ShapeTimeline timeline = timeline(from, to, start, start + duration);
+      motions++;
+      if (timeline.hasReciprocal(0)) {
+        exact++;
+        exactValues += (long) duration * ShapeTimeline.CHANNELS;
+      }
+      for (int elapsed = 0; elapsed < duration; elapsed++) {
+        timeline.valuesAt(start + elapsed, out);
+        for (int c = 0; c < ShapeTimeline.CHANNELS; c++) {
+          // The numerator stays below 2^63, so the long division is exact truncation
+          long numerator = (long) from[c] * duration + (long) (to[c] - from[c]) * elapsed;
+          int expected = (int) (numerator / duration);
+          if (out[c] != expected) {
+            wrong++;
+          }
+          if (doubleFormula(from[c], to[c], start, start + duration, start + elapsed)
+              != expected) {
+            oldWrong++;
+          }
+        }
+        values += ShapeTimeline.CHANNELS;
+      }
+    }
+    System.out.println(values + " values of " + motions + " motions checked, " + exactValues
+        + " values of " + exact + " motions divided by their reciprocal");
+    System.out.println(wrong + " values differ from exact truncation");
+    System.out.println(oldWrong + " values of the double formula differ from exact truncation");
+    time(random);
+    if (wrong > 0) {
+      System.exit(1);
+    }
+  }
+
+  // Times evaluating SHAPES shapes for TICKS frames with the timeline and with the double formula
+  private static void time(Random random) {
+    ShapeTimeline[] timelines = new ShapeTimeline[SHAPES];
+    int[][] froms = new int[SHAPES][ShapeTimeline.CHANNELS];
+    int[][] tos = new int[SHAPES][ShapeTimeline.CHANNELS];
+    for (int k = 0; k < SHAPES; k++) {
+      randomState(random, SMALL_VALUE, false, froms[k]);
+      randomState(random, SMALL_VALUE, false, tos[k]);
+      timelines[k] = timeline(froms[k], tos[k], 0, TICKS);
+    }
+    int[] out = new int[ShapeTimeline.CHANNELS];
+    long sum = 0;
+    for (int rep = 0; rep < 3; rep++) {
+      long before = System.nanoTime();
+      for (int tick = 0; tick < TICKS; tick++) {
+        for (ShapeTimeline timeline : timelines) {
+          timeline.valuesAt(tick, out);
+          sum += out[0];
+        }
+      }
+      long middle = System.nanoTime();
+      for (int tick = 0; tick < TICKS; tick++) {
+        for (int k = 0; k < SHAPES; k++) {
+          for (int c = 0; c < ShapeTimeline.CHANNELS; c++) {
+            sum += doubleFormula(froms[k][c], tos[k][c], 0, TICKS, tick);
+          }
+        }
+      }
+      long after = System.nanoTime();
+      System.out.println(SHAPES + " shapes x " + TICKS + " ticks: timeline "
+          + (middle - before) / 1000000 + " ms, double formula alone "
+          + (after - middle) / 1000000 + " ms");
+    }
+    // Keeps the loops from being optimized away
+    if (sum == 42) {
+      System.out.println();
+    }
+  }
+
+  // Fills the given state with random values up to the given bound, positions negative as well if
+  // asked, and colors in [0, 255]
+  private static void randomState(Random random, int bound, boolean negative, int[] state) {
+    int low = negative ? -bound : 0;
+    state[ShapeTimeline.X] = low + random.nextInt(bound - low + 1);
+    state[ShapeTimeline.Y] = low + random.nextInt(bound - low + 1);
+    state[ShapeTimeline.WIDTH] = random.nextInt(bound + 1);
+    state[ShapeTimeline.HEIGHT] = random.nextInt(bound + 1);
+    state[ShapeTimeline.RED] = random.nextInt(256);
+    state[ShapeTimeline.GREEN] = random.nextInt(256);
+    state[ShapeTimeline.BLUE] = random.nextInt(256);
+  }
+
+  // Timeline of a shape with one motion between the given states
+  private static ShapeTimeline timeline(int[] from, int[] to, int start, int end) {
+    IMotion motion = new ShapeMotion(start, end);
+    motion.addState(MotionState.move(to[ShapeTimeline.X], to[ShapeTimeline.Y]));
+    motion.addState(MotionState.size(to[ShapeTimeline.WIDTH], to[ShapeTimeline.HEIGHT]));
+    motion.addState(MotionState.color(to[ShapeTimeline.RED], to[ShapeTimeline.GREEN],
+        to[ShapeTimeline.BLUE]));
+    return new ShapeTimeline(ShapeType.RECTANGLE, from, Collections.singletonList(motion));
+  }
+
+  // Interpolates with doubles, as linearInterpolation did before ShapeTimeline
+  private static int doubleFormula(double initialVal, double finalVal, int start, int end,
+      int tick) {
+    double duration = end - start;
+    if (initialVal == finalVal) {
+      return (int) initialVal;
+    }
+    return (int) ((initialVal * (end - tick) / duration) + (finalVal * (tick - start)
+        / duration));
+  }
+}
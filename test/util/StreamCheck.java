@@ -0,0 +1,292 @@
+package cs3500.animator.util;
+
+import cs3500.animator.model.ArrayAnimatorModel;
+import cs3500.animator.model.IAnimatorModel;
+import cs3500.animator.model.IAnimatorModelImpl;
+import cs3500.animator.model.IColoredShape;
+import cs3500.animator.model.IROPlaybackModel;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that an {@code AnimationStream} never reports a tick as loaded before the shapes at that
+ * tick are the same as once the whole file is read. Each time the frontier moves, every tick that
+ * became loaded is compared, shape by shape, with the model read from the whole file. The files
+ * checked are:
+ * <ul>
+ *   <li>a random file in order of start, with gaps between the motions of shapes and keyframes,
+ *   </li>
+ *   <li>a file in order of start where a shape has a long gap that ends only after another
+ *   flush, so that the shape looks gone until its next motion is read,</li>
+ *   <li>a file listing all the motions of one shape before those of the next, which must stop the
+ *   frontier until the whole file is read,</li>
+ * </ul>
+ * and a file cut off in the middle of its last record, which must make the stream throw instead
+ * of counting as read.
+ *
+ * <p>Compile together with the sources, and run with
+ * {@code java cs3500.animator.util.StreamCheck}. Prints the wrong ticks of each file, and exits
+ * with status 1 if there are any.</p>
+ */
+final class StreamCheck {
+
+  private static final int SHAPES = 200; // Shapes of the random file
+  private static final int TICKS = 3000; // Ticks of the random file
+
+  // Not instantiable
+  private StreamCheck() {
+  }
+
+  /**
+   * Runs the check.
+   *
+   * @param args Unused
+   * @throws IOException if the files cannot be written
+   * @throws InterruptedException if interrupted while waiting for a stream
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    Path dir = Files.createTempDirectory("stream-check");
+    int wrong = 0;
+    wrong += check(sorted(dir.resolve("sorted.txt")));
+    wrong += check(gap(dir.resolve("gap.txt")));
+    wrong += check(grouped(dir.resolve("grouped.txt")));
+    if (!failsOnInvalid(invalid(dir.resolve("invalid.txt")))) {
+      System.out.println("invalid.txt: read error not reported");
+      wrong++;
+    }
+    System.out.println(wrong + " wrong");
+    if (wrong > 0) {
+      System.exit(1);
+    }
+  }
+
+  // Streams the given file into both kinds of model, returning the number of ticks reported as
+  // loaded that differed from the whole file
+  private static int check(Path path) throws InterruptedException {
+    int wrong = 0;
+    for (int kind = 0; kind < 2; kind++) {
+      IROPlaybackModel full = AnimationReader.parseFile(path,
+          new IAnimatorModelImpl.Builder(create(kind))).getSnapshot();
+      CheckingBuilder checking = new CheckingBuilder(create(kind), full);
+      AnimationStream<IAnimatorModel> stream = AnimationStream.start(path, checking,
+          checking.target::flush);
+      checking.stream = stream;
+      while (!stream.isDone()) {
+        Thread.sleep(1);
+      }
+      if (stream.getDocument() == null) {
+        wrong++;
+      }
+      System.out.println(path.getFileName() + " " + (kind == 0 ? "list" : "array") + ": "
+          + checking.checked + " ticks checked while loading, " + checking.wrong + " wrong");
+      wrong += checking.wrong;
+    }
+    return wrong;
+  }
+
+  // Reads the given invalid file, returning if the stream reported the error
+  private static boolean failsOnInvalid(Path path) throws InterruptedException {
+    IAnimatorModelImpl.Builder builder = new IAnimatorModelImpl.Builder(create(0));
+    AnimationStream<IAnimatorModel> stream = AnimationStream.start(path, builder, builder::flush);
+    while (!stream.isDone()) {
+      Thread.sleep(1);
+    }
+    try {
+      stream.isLoaded(0);
+      return false;
+    } catch (IllegalStateException e) {
+      return e.getCause() != null;
+    }
+  }
+
+  // Empty model of the given kind
+  private static IAnimatorModel create(int kind) {
+    return kind == 0 ? new IAnimatorModelImpl() : new ArrayAnimatorModel();
+  }
+
+  // Writes a random file in order of start, with small gaps and keyframes
+  private static Path sorted(Path path) throws IOException {
+    Random random = new Random(7);
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+      out.println("canvas 0 0 600 600");
+      int[][] state = new int[SHAPES][8];
+      for (int k = 0; k < SHAPES; k++) {
+        out.println("shape s" + k + (k % 2 == 0 ? " rectangle" : " ellipse"));
+        state[k][0] = 1 + random.nextInt(20);
+        for (int c = 1; c < 8; c++) {
+          state[k][c] = 1 + random.nextInt(200);
+        }
+      }
+      out.println("shape key ellipse");
+      for (int tick = 0; tick < TICKS; tick++) {
+        for (int k = 0; k < SHAPES; k++) {
+          if (state[k][0] != tick) {
+            continue;
+          }
+          int[] next = new int[8];
+          next[0] = tick + 1 + random.nextInt(30);
+          for (int c = 1; c < 8; c++) {
+            next[c] = 1 + random.nextInt(200);
+          }
+          out.println("motion s" + k + " " + join(state[k]) + " " + join(next));
+          state[k] = next;
+          // A shape sometimes waits a few ticks before its next motion
+          state[k][0] += random.nextInt(4) == 0 ? random.nextInt(6) : 0;
+        }
+        if (tick % 7 == 3) {
+          out.println("keyframe key " + tick + " " + random.nextInt(300) + " "
+              + random.nextInt(300) + " " + (1 + random.nextInt(40)) + " 9 "
+              + random.nextInt(256) + " 0 " + random.nextInt(256));
+        }
+      }
+    }
+    return path;
+  }
+
+  // Writes a file in order of start where shape B stops after tick 10 and only moves again at
+  // tick 4500, long after the first flush, while shape A moves every tick in between
+  private static Path gap(Path path) throws IOException {
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+      out.println("canvas 0 0 600 600\nshape A rectangle\nshape B rectangle");
+      out.println("motion B 0 1 1 10 10 1 1 1 10 50 50 10 10 1 1 1");
+      for (int tick = 0; tick < 4500; tick++) {
+        out.println("motion A " + tick + " " + tick % 100 + " 1 5 5 1 1 1 " + (tick + 1) + " "
+            + (tick + 1) % 100 + " 1 5 5 1 1 1");
+      }
+      out.println("motion B 4500 50 50 10 10 1 1 1 4510 90 90 10 10 1 1 1");
+    }
+    return path;
+  }
+
+  // Writes a file listing every motion of shape A, over ticks 1 to 701, before those of shape B,
+  // and then those of shape C, over the same ticks. The first flush comes in the middle of B, when
+  // C has not been read yet. The motions of A all come before it, since ticks played before the
+  // first record out of order is read may be wrong
+  private static Path grouped(Path path) throws IOException {
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+      out.println("canvas 0 0 600 600");
+      for (String id : new String[]{"A", "B", "C"}) {
+        out.println("shape " + id + " rectangle");
+      }
+      for (String id : new String[]{"A", "B", "C"}) {
+        for (int tick = 1; tick <= 700; tick++) {
+          out.println("motion " + id + " " + tick + " " + tick + " 1 5 5 1 1 1 " + (tick + 1) + " "
+              + (tick + 1) + " 1 5 5 1 1 1");
+        }
+      }
+    }
+    return path;
+  }
+
+  // Writes a file whose last record is cut off
+  private static Path invalid(Path path) throws IOException {
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+      out.println("canvas 0 0 600 600\nshape A rectangle");
+      for (int tick = 1; tick <= 3000; tick++) {
+        out.println("motion A " + tick + " 1 1 5 5 1 1 1 " + (tick + 1) + " 1 1 5 5 1 1 1");
+      }
+      out.println("motion A 3001 1 1 5 5 1 1");
+    }
+    return path;
+  }
+
+  // Values of a state, separated by spaces
+  private static String join(int[] values) {
+    StringBuilder result = new StringBuilder();
+    for (int value : values) {
+      result.append(result.length() == 0 ? "" : " ").append(value);
+    }
+    return result.toString();
+  }
+
+  // Shapes at the tick, as text to compare
+  private static String describe(List<IColoredShape> shapes) {
+    StringBuilder result = new StringBuilder();
+    for (IColoredShape shape : shapes) {
+      result.append(shape.getShapeType()).append(' ').append(shape.getX()).append(' ')
+          .append(shape.getY()).append(' ').append(shape.getWidth()).append(' ')
+          .append(shape.getHeight()).append(' ').append(shape.getRGB()).append(';');
+    }
+    return result.toString();
+  }
+
+  /**
+   * Hands every record on to the builder of the model being streamed, and before each one checks
+   * the ticks the stream has newly reported as loaded against the model of the whole file. Runs on
+   * the thread of the stream, so the model is never read while it is being built.
+   */
+  private static final class CheckingBuilder implements AnimationBuilder<IAnimatorModel> {
+
+    private final IAnimatorModelImpl.Builder target; // Builder of the model being streamed
+    private final IROPlaybackModel full; // Model read from the whole file
+    private final IAnimatorModel model; // Model being streamed
+    private volatile AnimationStream<IAnimatorModel> stream; // Stream reading into this
+    private int checked = 0; // Ticks checked so far, every one before is loaded
+    private int wrong = 0; // Ticks reported as loaded that differed from the whole file
+
+    // Constructs a builder reading into the given model, checked against the given one
+    private CheckingBuilder(IAnimatorModel model, IROPlaybackModel full) {
+      this.target = new IAnimatorModelImpl.Builder(model);
+      this.full = full;
+      this.model = model;
+    }
+
+    @Override
+    public IAnimatorModel build() {
+      return target.build();
+    }
+
+    @Override
+    public AnimationBuilder<IAnimatorModel> setBounds(int x, int y, int width, int height) {
+      target.setBounds(x, y, width, height);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<IAnimatorModel> declareShape(String name, String type) {
+      target.declareShape(name, type);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<IAnimatorModel> addMotion(String name, int t1, int x1, int y1,
+        int w1, int h1, int r1, int g1, int b1, int t2, int x2, int y2, int w2, int h2, int r2,
+        int g2, int b2) {
+      checkLoaded();
+      target.addMotion(name, t1, x1, y1, w1, h1, r1, g1, b1, t2, x2, y2, w2, h2, r2, g2, b2);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<IAnimatorModel> addKeyframe(String name, int t, int x, int y, int w,
+        int h, int r, int g, int b) {
+      checkLoaded();
+      target.addKeyframe(name, t, x, y, w, h, r, g, b);
+      return this;
+    }
+
+    // Compares every tick newly reported as loaded with the whole file
+    private void checkLoaded() {
+      while (stream == null) {
+        // The stream is set as soon as it has started
+        Thread.yield();
+      }
+      int last = full.getFinalTick() + 1;
+      IROPlaybackModel streamed = null;
+      while (checked <= last && stream.isLoaded(checked)) {
+        if (streamed == null) {
+          streamed = model.getSnapshot();
+        }
+        String expected = describe(full.getShapesAt(checked));
+        if (!describe(streamed.getShapesAt(checked)).equals(expected)) {
+          wrong++;
+        }
+        checked++;
+      }
+    }
+  }
+}
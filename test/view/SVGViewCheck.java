@@ -0,0 +1,55 @@
+package cs3500.animator.view;
+
+import cs3500.animator.model.IAnimatorModel;
+import cs3500.animator.model.IAnimatorModelImpl.Builder;
+import cs3500.animator.model.ROAnimatorModelImpl;
+import cs3500.animator.util.AnimationReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Checks that the SVG view writes an animation the same as it did before shapes were hidden until
+ * their first motion. The animation has shapes of both kinds whose first motion starts after tick
+ * 0, so each of them must still start from the state its first motion starts in, rather than from
+ * the hidden frame at tick 0; the expected document was written by the view before that change.
+ *
+ * <p>Compile together with the sources, and run from the root of the project with
+ * {@code java cs3500.animator.view.SVGViewCheck [animation expected]}, the files under
+ * {@code test/resources} by default. Prints the first line that differs, and exits with status 1
+ * if any does.</p>
+ */
+final class SVGViewCheck {
+
+  // Not instantiable
+  private SVGViewCheck() {
+  }
+
+  /**
+   * Runs the check.
+   *
+   * @param args The animation file and the SVG expected for it, optionally
+   * @throws IOException if the expected SVG cannot be read
+   */
+  public static void main(String[] args) throws IOException {
+    String in = args.length > 1 ? args[0] : "test/resources/late-shapes.txt";
+    String expected = new String(Files.readAllBytes(Paths.get(args.length > 1 ? args[1]
+        : "test/resources/late-shapes.svg")), StandardCharsets.UTF_8);
+    IAnimatorModel model = AnimationReader.parseFile(Paths.get(in), new Builder());
+    StringBuilder out = new StringBuilder();
+    new AnimatorSVGView(out).render(new ROAnimatorModelImpl(model), 0);
+    String[] want = expected.split("\n", -1);
+    String[] got = out.toString().split("\n", -1);
+    for (int line = 0; line < Math.max(want.length, got.length); line++) {
+      String wantLine = line < want.length ? want[line] : "";
+      String gotLine = line < got.length ? got[line] : "";
+      if (!wantLine.equals(gotLine)) {
+        System.out.println("Line " + (line + 1) + " differs:\n  expected " + wantLine
+            + "\n  written  " + gotLine);
+        System.exit(1);
+      }
+    }
+    System.out.println("SVG matches " + want.length + " lines");
+  }
+}
@@ -0,0 +1,172 @@
+package cs3500.animator.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the records read from one chunk of an animation file. The chunk is filled as a
+ * builder, so it is read the same way as a whole file, and only records what it is given: the
+ * canvases and shape declarations in order, and the motions and keyframes of each shape in order,
+ * kept as plain ints. Each record is numbered in the order it was read, so the records of several
+ * chunks can be checked against each other and replayed into another builder.
+ */
+final class AnimationChunk implements AnimationBuilder<AnimationChunk> {
+
+  private static final int MOTION = 0; // Kind of a motion record, followed by its 16 values
+  private static final int KEYFRAME = 1; // Kind of a keyframe record, followed by its 8 values
+
+  private final List<int[]> bounds; // Bounding boxes of the canvases, in order
+  private final List<String[]> declarations; // Name and type of each shape declared, in order
+  private final Map<String, Integer> declaredAt; // Number of the first declaration of each name
+  private final Map<String, Records> shapes; // Records of each shape, in the order first used
+  private int count = 0; // Number of records read
+
+  /**
+   * Constructs an empty chunk.
+   */
+  AnimationChunk() {
+    bounds = new ArrayList<>();
+    declarations = new ArrayList<>();
+    declaredAt = new LinkedHashMap<>();
+    shapes = new LinkedHashMap<>();
+  }
+
+  @Override
+  public AnimationChunk build() {
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<AnimationChunk> setBounds(int x, int y, int width, int height) {
+    bounds.add(new int[]{x, y, width, height});
+    count++;
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<AnimationChunk> declareShape(String name, String type) {
+    declarations.add(new String[]{name, type});
+    declaredAt.putIfAbsent(name, count++);
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<AnimationChunk> addMotion(String name, int t1, int x1, int y1, int w1,
+      int h1, int r1, int g1, int b1, int t2, int x2, int y2, int w2, int h2, int r2, int g2,
+      int b2) {
+    recordsOf(name).add(MOTION, t1, x1, y1, w1, h1, r1, g1, b1, t2, x2, y2, w2, h2, r2, g2, b2);
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<AnimationChunk> addKeyframe(String name, int t, int x, int y, int w,
+      int h, int r, int g, int b) {
+    recordsOf(name).add(KEYFRAME, t, x, y, w, h, r, g, b);
+    return this;
+  }
+
+  /**
+   * Returns the names declared in this chunk, each with the number of its first declaration.
+   *
+   * @return the names declared, in the order first declared
+   */
+  Map<String, Integer> getDeclared() {
+    return declaredAt;
+  }
+
+  /**
+   * Returns the names of the shapes this chunk has motions or keyframes for, each with the number
+   * of its first motion or keyframe.
+   *
+   * @return the names used, in the order first used
+   */
+  Map<String, Integer> getUsed() {
+    Map<String, Integer> result = new LinkedHashMap<>();
+    for (Map.Entry<String, Records> entry : shapes.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().first);
+    }
+    return result;
+  }
+
+  /**
+   * Gives the canvases and shape declarations of this chunk to the given builder, in order.
+   *
+   * @param builder The builder to give them to
+   */
+  void replayDeclarations(AnimationBuilder<?> builder) {
+    for (int[] box : bounds) {
+      builder.setBounds(box[0], box[1], box[2], box[3]);
+    }
+    for (String[] declaration : declarations) {
+      builder.declareShape(declaration[0], declaration[1]);
+    }
+  }
+
+  /**
+   * Gives the motions and keyframes of the given shape in this chunk to the given builder, in
+   * order.
+   *
+   * @param name The name of the shape
+   * @param builder The builder to give them to
+   */
+  void replayShape(String name, AnimationBuilder<?> builder) {
+    Records records = shapes.get(name);
+    if (records == null) {
+      return;
+    }
+    int[] v = records.values;
+    int index = 0;
+    while (index < records.size) {
+      if (v[index] == MOTION) {
+        builder.addMotion(name, v[index + 1], v[index + 2], v[index + 3], v[index + 4],
+            v[index + 5], v[index + 6], v[index + 7], v[index + 8], v[index + 9], v[index + 10],
+            v[index + 11], v[index + 12], v[index + 13], v[index + 14], v[index + 15],
+            v[index + 16]);
+        index += 17;
+      } else {
+        builder.addKeyframe(name, v[index + 1], v[index + 2], v[index + 3], v[index + 4],
+            v[index + 5], v[index + 6], v[index + 7], v[index + 8]);
+        index += 9;
+      }
+    }
+  }
+
+  // Records of the given shape, created when it is first used
+  private Records recordsOf(String name) {
+    Records records = shapes.get(name);
+    if (records == null) {
+      records = new Records(count);
+      shapes.put(name, records);
+    }
+    count++;
+    return records;
+  }
+
+  /**
+   * Represents the motions and keyframes of one shape, each kept as its kind followed by its
+   * values.
+   */
+  private static final class Records {
+
+    private final int first; // Number of the first record of the shape
+    private int[] values = new int[32]; // Kinds and values of the records
+    private int size = 0; // Number of ints used
+
+    private Records(int first) {
+      this.first = first;
+    }
+
+    // Adds a record of the given kind and values
+    private void add(int kind, int... record) {
+      if (size + record.length + 1 > values.length) {
+        values = Arrays.copyOf(values, Math.max(values.length * 2, size + record.length + 1));
+      }
+      values[size++] = kind;
+      System.arraycopy(record, 0, values, size, record.length);
+      size += record.length;
+    }
+  }
+}
@@ -1,19 +1,39 @@
 package cs3500.animator.util;
 
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Scanner;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A helper to read animation data and construct an animation from it.
  */
 public class AnimationReader {
+
+  private static final long MIN_CHUNK_SIZE = 1 << 22; // Fewest bytes worth a chunk of their own
+  private static final int BOUNDARY_WINDOW = 1 << 20; // Most bytes searched for a record start
+  private static final byte[][] KEYWORDS = {
+    "canvas".getBytes(StandardCharsets.US_ASCII), "shape".getBytes(StandardCharsets.US_ASCII),
+    "motion".getBytes(StandardCharsets.US_ASCII), "keyframe".getBytes(StandardCharsets.US_ASCII)
+  };
+
   /**
    * A factory for producing new animations, given a source of shapes and a
    * builder for constructing animations.
    *
    * <p>
-   * The input file format consists of two types of lines:
+   * The input file format consists of three types of lines:
    * <ul>
    * <li>Shape lines: the keyword "shape" followed by two identifiers (i.e.
    * alphabetic strings with no spaces), giving the unique name of the shape,
@@ -23,7 +43,13 @@ public class AnimationReader {
    * eight numbers giving the time, the x and y coordinates, the width and height,
    * and the red, green and blue color values at the start of the motion; followed by 
    * eight numbers for the end of the motion.  See {@link AnimationBuilder#addMotion}</li>
+   * <li>Keyframe lines: the keyword "keyframe" followed by an identifier giving the name
+   * of the shape, and 8 integers giving the time, the x and y coordinates, the width and
+   * height, and the red, green and blue color values of the shape at that time.
+   * See {@link AnimationBuilder#addKeyframe}</li>
    * </ul>
+   * Anything from a # to the end of its line is a comment. Errors in the input are reported
+   * along with the line and column they were found at.
    * </p>
    *
    * @param readable The source of data for the animation
@@ -34,9 +60,112 @@ public class AnimationReader {
   public static <Doc> Doc parseFile(Readable readable, AnimationBuilder<Doc> builder) {
     Objects.requireNonNull(readable, "Must have non-null readable source");
     Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
-    Scanner s = new Scanner(readable);
+    return parse(new TextTokenizer(readable), builder);
+  }
+
+  /**
+   * A factory for producing new animations from a file, in the same format as
+   * {@link #parseFile(Readable, AnimationBuilder)}. The file is mapped into memory and its bytes
+   * are tokenized where they lie, without decoding them into characters first, so files larger
+   * than the heap can be read. The text is expected to be ASCII, apart from shape names, which
+   * are read as UTF-8. A file in the binary format written by {@link BinaryAnimationWriter} is
+   * recognized by its first bytes and read by {@link BinaryAnimationReader} instead.
+   *
+   * @param path     The path of the file to read
+   * @param builder  A builder for helping to construct a new animation
+   * @param <Doc>    The main model interface type describing animations
+   * @return Final document of the animation
+   * @throws IllegalStateException if the file cannot be found or read, or its contents are
+   *                               invalid
+   */
+  public static <Doc> Doc parseFile(Path path, AnimationBuilder<Doc> builder) {
+    Objects.requireNonNull(path, "Must have non-null path");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (BinaryAnimationReader.isBinary(channel)) {
+        return BinaryAnimationReader.parse(channel, builder, null);
+      }
+      return parse(new MappedTokenizer(channel), builder);
+    } catch (NoSuchFileException e) {
+      throw new IllegalStateException("File not found");
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read input: " + e.getMessage());
+    }
+  }
+
+  /**
+   * A factory for producing new animations from a file, in the same format as
+   * {@link #parseFile(Readable, AnimationBuilder)}, reading parts of the file at once on the given
+   * pool. The file is split into chunks at lines that start a record, and each chunk is read on
+   * its own into plain records. The records are then given to the builder on the calling thread:
+   * the canvases and shape declarations first, then the motions and keyframes of each shape in the
+   * order the shapes are first used, each in the order it is in the file. A builder that keeps the
+   * records of each shape in order, as the builders of the models do, builds the same animation
+   * as when reading the file in order. Records are expected to start on lines of their own.
+   *
+   * <p>
+   * Every record of the file is held in memory until the builder is given them, so reading takes
+   * memory in proportion to the size of the file, unlike {@link #parseFile(Path, AnimationBuilder)}
+   * which keeps nothing but the document being built. It is meant for files that fit comfortably
+   * in memory, when reading them sooner matters more.
+   * </p>
+   *
+   * <p>
+   * If a chunk cannot be read, or a shape is used before it is declared, nothing is given to the
+   * builder and the file is read again in order, so that any error is reported exactly as
+   * {@link #parseFile(Path, AnimationBuilder)} reports it. Files too small to be worth splitting
+   * are read in order from the start. Binary files are read as by
+   * {@link #parseFile(Path, AnimationBuilder)}.
+   * </p>
+   *
+   * @param path     The path of the file to read
+   * @param builder  A builder for helping to construct a new animation
+   * @param pool     The pool to read chunks of the file on
+   * @param <Doc>    The main model interface type describing animations
+   * @return Final document of the animation
+   * @throws IllegalStateException if the file cannot be found or read, or its contents are
+   *                               invalid
+   */
+  public static <Doc> Doc parseFile(Path path, AnimationBuilder<Doc> builder,
+      ForkJoinPool pool) {
+    Objects.requireNonNull(path, "Must have non-null path");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    Objects.requireNonNull(pool, "Must have non-null pool");
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (BinaryAnimationReader.isBinary(channel)) {
+        return BinaryAnimationReader.parse(channel, builder, null);
+      }
+      long size = channel.size();
+      // Gives every thread a few chunks so that uneven chunks still balance out
+      int count = (int) Math.min(size / MIN_CHUNK_SIZE, pool.getParallelism() * 4L);
+      if (count > 1) {
+        long[] boundaries = chunkBoundaries(channel, size, count);
+        AnimationChunk[] chunks = new AnimationChunk[boundaries.length - 1];
+        pool.invoke(new ParseTask(channel, boundaries, chunks, 0, chunks.length));
+        if (canReplay(chunks)) {
+          replay(chunks, builder);
+          return builder.build();
+        }
+      }
+      return parse(new MappedTokenizer(channel), builder);
+    } catch (NoSuchFileException e) {
+      throw new IllegalStateException("File not found");
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read input: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Reads every record from the given tokenizer into the given builder.
+   *
+   * @param s        The tokenizer to read from
+   * @param builder  A builder for helping to construct a new animation
+   * @param <Doc>    The main model interface type describing animations
+   * @return Final document of the animation
+   * @throws IllegalStateException if the contents are invalid
+   */
+  static <Doc> Doc parse(AnimationTokenizer s, AnimationBuilder<Doc> builder) {
     // Split at whitespace, and ignore # comment lines
-    s.useDelimiter(Pattern.compile("(\\p{Space}+|#.*)+")); 
     while (s.hasNext()) {
       String word = s.next();
       switch (word) {
@@ -49,14 +178,111 @@ public class AnimationReader {
         case "motion":
           readMotion(s, builder);
           break;
+        case "keyframe":
+          readKeyframe(s, builder);
+          break;
         default:
-          throw new IllegalStateException("Unexpected keyword: " + word + s.nextLine());
+          throw new IllegalStateException("Unexpected keyword: " + word + s.nextLine()
+              + " at " + s.location());
       }
     }
     return builder.build();
   }
 
-  private static <Doc> void readCanvas(Scanner s, AnimationBuilder<Doc> builder) {
+  // Offsets splitting the file into about the given number of chunks, each starting at a line that
+  // starts a record, followed by the size of the file
+  private static long[] chunkBoundaries(FileChannel channel, long size, int count)
+      throws IOException {
+    List<Long> starts = new ArrayList<>();
+    starts.add(0L);
+    for (int k = 1; k < count; k++) {
+      long previous = starts.get(starts.size() - 1);
+      long boundary = recordStart(channel, Math.max(size / count * k, previous), size);
+      // A chunk with no record start close to where it should begin is joined to the one before
+      if (boundary > previous && boundary < size) {
+        starts.add(boundary);
+      }
+    }
+    long[] result = new long[starts.size() + 1];
+    for (int k = 0; k < starts.size(); k++) {
+      result[k] = starts.get(k);
+    }
+    result[starts.size()] = size;
+    return result;
+  }
+
+  // Offset of the first line after the given offset that starts with a keyword, or the size of
+  // the file if there is none close by
+  private static long recordStart(FileChannel channel, long from, long size) throws IOException {
+    int length = (int) Math.min(BOUNDARY_WINDOW, size - from);
+    MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+    for (int index = 0; index < length; index++) {
+      if (window.get(index) == '\n' && startsRecord(window, index + 1, length)) {
+        return from + index + 1;
+      }
+    }
+    return size;
+  }
+
+  // If the line at the given index starts with a keyword followed by whitespace
+  private static boolean startsRecord(MappedByteBuffer window, int index, int length) {
+    while (index < length && (window.get(index) == ' ' || window.get(index) == '\t')) {
+      index++;
+    }
+    for (byte[] keyword : KEYWORDS) {
+      int end = index + keyword.length;
+      if (end >= length) {
+        continue;
+      }
+      boolean matches = true;
+      for (int k = 0; k < keyword.length && matches; k++) {
+        matches = window.get(index + k) == keyword[k];
+      }
+      byte after = window.get(end);
+      if (matches && (after == ' ' || after == '\t')) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // If every chunk was read and every shape is declared before it is first used, in file order
+  private static boolean canReplay(AnimationChunk[] chunks) {
+    Map<String, Long> declared = new HashMap<>();
+    for (int c = 0; c < chunks.length; c++) {
+      if (chunks[c] == null) {
+        return false;
+      }
+      for (Map.Entry<String, Integer> entry : chunks[c].getDeclared().entrySet()) {
+        declared.putIfAbsent(entry.getKey(), ((long) c << 32) | entry.getValue());
+      }
+    }
+    for (int c = 0; c < chunks.length; c++) {
+      for (Map.Entry<String, Integer> entry : chunks[c].getUsed().entrySet()) {
+        Long at = declared.get(entry.getKey());
+        if (at == null || at > (((long) c << 32) | entry.getValue())) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  // Gives the records of the chunks to the builder, shape by shape in the order first used
+  private static void replay(AnimationChunk[] chunks, AnimationBuilder<?> builder) {
+    Set<String> names = new LinkedHashSet<>();
+    for (AnimationChunk chunk : chunks) {
+      chunk.replayDeclarations(builder);
+      names.addAll(chunk.getUsed().keySet());
+    }
+    for (String name : names) {
+      for (AnimationChunk chunk : chunks) {
+        chunk.replayShape(name, builder);
+      }
+    }
+  }
+
+  private static <Doc> void readCanvas(AnimationTokenizer s, AnimationBuilder<Doc> builder) {
     int[] vals = new int[4];
     String[] fieldNames = {"left", "top", "width", "height"};
     for (int i = 0; i < 4; i++) {
@@ -65,23 +291,25 @@ public class AnimationReader {
     builder.setBounds(vals[0], vals[1], vals[2], vals[3]);
   }
 
-  private static <Doc> void readShape(Scanner s, AnimationBuilder<Doc> builder) {
+  private static <Doc> void readShape(AnimationTokenizer s, AnimationBuilder<Doc> builder) {
     String name;
     String type;
     if (s.hasNext()) {
       name = s.next();
     } else {
-      throw new IllegalStateException("Shape: Expected a name, but no more input available");
+      throw new IllegalStateException(
+              "Shape: Expected a name, but no more input available at " + s.location());
     }
     if (s.hasNext()) {
       type = s.next();
     } else {
-      throw new IllegalStateException("Shape: Expected a type, but no more input available");
+      throw new IllegalStateException(
+              "Shape: Expected a type, but no more input available at " + s.location());
     }
     builder.declareShape(name, type);
   }
 
-  private static <Doc> void readMotion(Scanner s, AnimationBuilder<Doc> builder) {
+  private static <Doc> void readMotion(AnimationTokenizer s, AnimationBuilder<Doc> builder) {
     String[] fieldNames = new String[]{
       "initial time",
       "initial x-coordinate", "initial y-coordinate",
@@ -97,7 +325,8 @@ public class AnimationReader {
     if (s.hasNext()) {
       name = s.next();
     } else {
-      throw new IllegalStateException("Motion: Expected a shape name, but no more input available");
+      throw new IllegalStateException(
+              "Motion: Expected a shape name, but no more input available at " + s.location());
     }
     for (int i = 0; i < 16; i++) {
       vals[i] = getInt(s, "Motion", fieldNames[i]);
@@ -106,17 +335,40 @@ public class AnimationReader {
             vals[0], vals[1], vals[2 ], vals[3 ], vals[4 ], vals[5 ], vals[6 ], vals[7 ],
             vals[8], vals[9], vals[10], vals[11], vals[12], vals[13], vals[14], vals[15]);
   }
-  
-  private static int getInt(Scanner s, String label, String fieldName) {
+
+  private static <Doc> void readKeyframe(AnimationTokenizer s, AnimationBuilder<Doc> builder) {
+    String[] fieldNames = new String[]{
+      "time",
+      "x-coordinate", "y-coordinate",
+      "width", "height",
+      "red value", "green value", "blue value",
+    };
+    int[] vals = new int[8];
+    String name;
+    if (s.hasNext()) {
+      name = s.next();
+    } else {
+      throw new IllegalStateException(
+              "Keyframe: Expected a shape name, but no more input available at " + s.location());
+    }
+    for (int i = 0; i < 8; i++) {
+      vals[i] = getInt(s, "Keyframe", fieldNames[i]);
+    }
+    builder.addKeyframe(name,
+            vals[0], vals[1], vals[2], vals[3], vals[4], vals[5], vals[6], vals[7]);
+  }
+
+  private static int getInt(AnimationTokenizer s, String label, String fieldName) {
     if (s.hasNextInt()) {
       return s.nextInt();
     } else if (s.hasNext()) {
       throw new IllegalStateException(
-              String.format("%s: expected integer for %s, got: %s", label, fieldName, s.next()));
+              String.format("%s: expected integer for %s, got: %s at %s", label, fieldName,
+                            s.next(), s.location()));
     } else {
       throw new IllegalStateException(
-              String.format("%s: expected integer for %s, but no more input available",
-                            label, fieldName));
+              String.format("%s: expected integer for %s, but no more input available at %s",
+                            label, fieldName, s.location()));
     }
   }
 
@@ -0,0 +1,218 @@
+package cs3500.animator.util;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Represents an animation file being read on a background thread, so that it can be played while
+ * the rest of it is still being read. What has been read is handed to the builder as it is read,
+ * and every so often the builder is flushed, so that the document it is building catches up with
+ * the file; the first flush comes after only a few records, so the start of the animation is
+ * ready almost at once, and flushes then grow further apart so that they cost little in all.
+ *
+ * <p>After each flush the stream publishes its frontier, the tick before which every tick is
+ * complete. Records read later may still start at the latest start read so far, so the frontier
+ * is never past it. Nor is it ever past the last tick any shape has been read up to: after its
+ * last motion a shape is gone, but a record read later may start after a gap instead, which holds
+ * the shape in its last state until then, or put a keyframe there. A shape that stops before the
+ * end of the animation therefore holds the frontier where it stopped until the whole file has
+ * been read. A record that changes ticks behind the frontier anyway moves it back to the first
+ * of them, until the flush that hands it over.</p>
+ *
+ * <p>This only holds while the file lists its records in order of their start, as animation files
+ * are usually written. As soon as a record starts before one read earlier, such as in a file that
+ * lists all the motions of one shape before those of the next, any tick may still change, so the
+ * frontier stops advancing and no further tick counts as loaded until the whole file has been
+ * read; ticks played before that record was read may have been drawn without it.</p>
+ *
+ * <p>If the file cannot be read, the exception is kept and thrown again, wrapped, to whoever
+ * asks the stream for a tick or the document afterwards, rather than the partly read file being
+ * played as if it were complete.</p>
+ */
+public final class AnimationStream<Doc> {
+
+  private static final int FIRST_FLUSH = 1 << 10; // Records read before the first flush
+  private static final int MAX_FLUSH = 1 << 16; // Most records read between flushes
+
+  private final AnimationBuilder<Doc> builder; // Builder the records read are handed to
+  private final Runnable flush; // Brings the document up to date with the records handed over
+  private volatile int frontier = 0; // Every tick before is loaded
+  private volatile boolean done = false; // If the whole file has been read, or could not be
+  private volatile Doc document = null; // Document built from the whole file, null before
+  private volatile RuntimeException failure = null; // Why the file could not be read, if so
+
+  // Constructs a stream that has not started reading
+  private AnimationStream(AnimationBuilder<Doc> builder, Runnable flush) {
+    this.builder = builder;
+    this.flush = flush;
+  }
+
+  /**
+   * Starts reading the given animation file into the given builder on a new background thread.
+   * If the file cannot be read, the stream keeps the exception and counts as done, and asking it
+   * for any tick or the document afterwards throws.
+   *
+   * @param path The path of the file to read
+   * @param builder The builder to read the file into, which is only used by the background thread
+   * @param flush Brings the document being built up to date with what the builder was given so
+   *              far, such as {@code IAnimatorModelImpl.Builder.flush}
+   * @param <Doc> The main document type produced by the builder
+   * @return the stream, already reading
+   * @throws IllegalArgumentException if any argument is null
+   */
+  public static <Doc> AnimationStream<Doc> start(Path path, AnimationBuilder<Doc> builder,
+      Runnable flush) {
+    if (path == null || builder == null || flush == null) {
+      throw new IllegalArgumentException("Illegal parameters for stream");
+    }
+    AnimationStream<Doc> stream = new AnimationStream<>(builder, flush);
+    Thread reader = new Thread(() -> {
+      try {
+        stream.document = AnimationReader.parseFile(path, stream.new FlushingBuilder());
+      } catch (RuntimeException e) {
+        // Kept before done is set, so that whoever sees the stream done also sees why
+        stream.failure = e;
+      }
+      stream.done = true;
+    }, "animation-reader");
+    reader.setDaemon(true);
+    reader.start();
+    return stream;
+  }
+
+  /**
+   * Returns if the given tick can be played: if every motion and keyframe it depends on has been
+   * read and flushed into the document, or the whole file has been read.
+   *
+   * @param tick The tick to play
+   * @return true if the tick is loaded
+   * @throws IllegalStateException if the file could not be read, with the reason as its cause
+   */
+  public boolean isLoaded(int tick) throws IllegalStateException {
+    checkFailure();
+    return tick < frontier || done;
+  }
+
+  /**
+   * Returns if reading has finished, whether or not the whole file could be read; if it could
+   * not, {@code isLoaded} and {@code getDocument} throw.
+   *
+   * @return true if the stream is done
+   */
+  public boolean isDone() {
+    return done;
+  }
+
+  /**
+   * Returns the document built from the whole file.
+   *
+   * @return the document
+   * @throws IllegalStateException if the file has not been read to its end yet, or could not be
+   *                               read, with the reason as its cause
+   */
+  public Doc getDocument() throws IllegalStateException {
+    checkFailure();
+    Doc result = document;
+    if (result == null) {
+      throw new IllegalStateException("Animation not fully read");
+    }
+    return result;
+  }
+
+  // Throws if the file could not be read
+  private void checkFailure() throws IllegalStateException {
+    RuntimeException cause = failure;
+    if (cause != null) {
+      throw new IllegalStateException("Animation could not be read: " + cause.getMessage(), cause);
+    }
+  }
+
+  /**
+   * Hands every record read to the builder of the stream, flushing it every so often and then
+   * moving the frontier up to what was flushed as long as the records come in order.
+   */
+  private final class FlushingBuilder implements AnimationBuilder<Doc> {
+
+    private final Map<String, Integer> ends = new HashMap<>(); // Last end tick of each shape
+    private int latest = 0; // Latest start tick read
+    private boolean ordered = true; // If no record started before one read earlier
+    private int unflushed = 0; // Number of records read since the last flush
+    private int interval = FIRST_FLUSH; // Number of records read before the next flush
+
+    @Override
+    public Doc build() {
+      Doc result = builder.build();
+      frontier = Integer.MAX_VALUE;
+      return result;
+    }
+
+    @Override
+    public AnimationBuilder<Doc> setBounds(int x, int y, int width, int height) {
+      builder.setBounds(x, y, width, height);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Doc> declareShape(String name, String type) {
+      builder.declareShape(name, type);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Doc> addMotion(String name, int t1, int x1, int y1, int w1, int h1,
+        int r1, int g1, int b1, int t2, int x2, int y2, int w2, int h2, int r2, int g2, int b2) {
+      builder.addMotion(name, t1, x1, y1, w1, h1, r1, g1, b1, t2, x2, y2, w2, h2, r2, g2, b2);
+      read(name, t1, t2);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Doc> addKeyframe(String name, int t, int x, int y, int w, int h,
+        int r, int g, int b) {
+      builder.addKeyframe(name, t, x, y, w, h, r, g, b);
+      read(name, t, t);
+      return this;
+    }
+
+    // Counts a motion or keyframe of the given shape between the given ticks, flushing if enough
+    // were read
+    private void read(String name, int start, int end) {
+      Integer previous = ends.get(name);
+      if (previous == null || previous < end) {
+        ends.put(name, end);
+      }
+      // First tick the record changes: its start, or the one after the end of the shape's record
+      // before it if there is a gap between them
+      int from = previous != null && previous < start ? previous + 1 : start;
+      if (from < frontier) {
+        frontier = from;
+      }
+      if (start < latest) {
+        ordered = false;
+      }
+      latest = Math.max(latest, start);
+      if (++unflushed < interval) {
+        return;
+      }
+      flush.run();
+      // Out of order, a record changing any tick may still be read
+      if (ordered) {
+        frontier = complete();
+      }
+      unflushed = 0;
+      interval = Math.min(interval * 2, MAX_FLUSH);
+    }
+
+    // Tick before which every tick is complete, as long as the records come in order: at most the
+    // latest start, and at most one past the last end of every shape, which may still go on after
+    // a gap. Only run on a flush, so going over every shape costs little in all
+    private int complete() {
+      int result = latest;
+      for (int end : ends.values()) {
+        result = Math.min(result, end + 1);
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,315 @@
+package cs3500.animator.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Splits the text of an animation into words and integers. Words are separated by whitespace,
+ * and a # starts a comment that runs to the end of the line. The text is read in large blocks
+ * into a buffer, and tokens are found by looking at the characters one at a time rather than by
+ * matching patterns, so integers are parsed in place without creating a string. Words are usually
+ * the same few keywords and shape names over and over, so one string is kept for each distinct
+ * word and given out every time it is read. The line and column of the token being read are
+ * tracked for error messages. Subclasses provide the buffer and fill it from their source.
+ */
+abstract class AnimationTokenizer {
+
+  private static final int INITIAL_WORDS = 1 << 10;
+  private static final int MAX_WORDS = 1 << 16;
+
+  int position = 0; // Index in the buffer of the next character to tokenize
+  int limit = 0; // Index in the buffer after the last character read
+  long offset = 0; // Number of characters read before the start of the buffer
+  private boolean exhausted = false; // If the source has no more text
+  private int line = 1; // Line of the next character to tokenize
+  private long lineStart = 0; // Number of characters read before the start of the line
+  private int tokenLine = 1; // Line of the start of the current token
+  private long tokenColumn = 1; // Column of the start of the current token
+  private int intEnd = -1; // Index after the integer at the position, -1 if not checked
+  private int intValue; // Value of the integer at the position
+  private String[] words; // Distinct words read so far, as an open addressed hash table
+  private int wordCount = 0; // Number of distinct words kept
+
+  /**
+   * Constructs a tokenizer that has not read any text yet.
+   */
+  AnimationTokenizer() {
+    words = new String[INITIAL_WORDS];
+  }
+
+  /**
+   * Returns the character at the given index in the buffer.
+   *
+   * @param index The index, within [0, limit)
+   * @return the character
+   */
+  abstract char charAt(int index);
+
+  /**
+   * Creates a string of the text in the buffer between the given indices.
+   *
+   * @param start The index of the first character
+   * @param end The index after the last character
+   * @return the text
+   */
+  abstract String text(int start, int end);
+
+  /**
+   * Reads more text into the buffer after the limit. The text from the position onward may first
+   * be moved to the start of the buffer, in which case the position, limit and offset are moved
+   * back along with it, but no text from the position onward is lost.
+   *
+   * @return false if there is no more text
+   * @throws IllegalStateException if the source cannot be read
+   */
+  abstract boolean read();
+
+  /**
+   * Returns if there is another token.
+   *
+   * @return true if there is another token
+   * @throws IllegalStateException if the source cannot be read
+   */
+  boolean hasNext() {
+    return skip();
+  }
+
+  /**
+   * Reads the next token as a word.
+   *
+   * @return the next token
+   * @throws NoSuchElementException if there are no more tokens
+   * @throws IllegalStateException if the source cannot be read
+   */
+  String next() {
+    if (!skip()) {
+      throw new NoSuchElementException("No more input available");
+    }
+    int end = tokenEnd();
+    String word = word(position, end);
+    position = end;
+    intEnd = -1;
+    return word;
+  }
+
+  /**
+   * Returns if the next token is a decimal integer that fits in an int.
+   *
+   * @return true if there is another token and it is an integer
+   * @throws IllegalStateException if the source cannot be read
+   */
+  boolean hasNextInt() {
+    if (intEnd >= 0) {
+      return true;
+    }
+    if (!skip()) {
+      return false;
+    }
+    int end = tokenEnd();
+    int index = position;
+    boolean negative = charAt(index) == '-';
+    if (negative || charAt(index) == '+') {
+      index++;
+    }
+    if (index == end) {
+      return false;
+    }
+    // Accumulated as a negative number, which has the larger range
+    long value = 0;
+    for (; index < end; index++) {
+      int digit = charAt(index) - '0';
+      if (digit < 0 || digit > 9) {
+        return false;
+      }
+      value = value * 10 - digit;
+      if (value < Integer.MIN_VALUE) {
+        return false;
+      }
+    }
+    if (!negative && value == Integer.MIN_VALUE) {
+      return false;
+    }
+    intValue = (int) (negative ? value : -value);
+    intEnd = end;
+    return true;
+  }
+
+  /**
+   * Reads the next token as an integer.
+   *
+   * @return the value of the next token
+   * @throws IllegalStateException if the next token is not an integer, or the source cannot be
+   *                               read
+   */
+  int nextInt() {
+    if (!hasNextInt()) {
+      throw new IllegalStateException("Expected an integer at " + location());
+    }
+    position = intEnd;
+    intEnd = -1;
+    return intValue;
+  }
+
+  /**
+   * Reads the rest of the current line, without the line break.
+   *
+   * @return the rest of the line, which may be empty
+   * @throws IllegalStateException if the source cannot be read
+   */
+  String nextLine() {
+    StringBuilder result = new StringBuilder();
+    while (position < limit || fill()) {
+      char c = charAt(position++);
+      if (c == '\n') {
+        newLine();
+        break;
+      }
+      result.append(c);
+    }
+    intEnd = -1;
+    int length = result.length();
+    if (length > 0 && result.charAt(length - 1) == '\r') {
+      result.setLength(length - 1);
+    }
+    return result.toString();
+  }
+
+  /**
+   * Returns the line and column of the token last read or looked at, or of the end of the input
+   * if there are no more tokens.
+   *
+   * @return the location, as a line and column counted from 1
+   */
+  String location() {
+    return String.format("line %d, column %d", tokenLine, tokenColumn);
+  }
+
+  // Skips whitespace and comments up to the start of the next token, returning false if the end of
+  // the input is reached first
+  private boolean skip() {
+    while (position < limit || fill()) {
+      char c = charAt(position);
+      if (c == '#') {
+        // Comments run up to the line break, which is then skipped as whitespace
+        do {
+          position++;
+        } while ((position < limit || fill()) && charAt(position) != '\n');
+      } else if (isSpace(c)) {
+        position++;
+        if (c == '\n') {
+          newLine();
+        }
+      } else {
+        markToken();
+        return true;
+      }
+    }
+    markToken();
+    return false;
+  }
+
+  // Index after the last character of the token at the position
+  private int tokenEnd() {
+    int end = position;
+    while (true) {
+      if (end == limit) {
+        // The token is moved back along with the position when more text is read
+        int length = end - position;
+        boolean more = fill();
+        end = position + length;
+        if (!more) {
+          return end;
+        }
+      }
+      char c = charAt(end);
+      if (c == '#' || isSpace(c)) {
+        return end;
+      }
+      end++;
+    }
+  }
+
+  // Reads more text into the buffer, returning false if there is no more text
+  private boolean fill() {
+    if (exhausted) {
+      return false;
+    }
+    // Indices into the buffer may have moved
+    intEnd = -1;
+    exhausted = !read();
+    return !exhausted;
+  }
+
+  // Moves on to the line after the line break just skipped
+  private void newLine() {
+    line++;
+    lineStart = offset + position;
+  }
+
+  // Remembers the position as the start of a token, or of the end of the input
+  private void markToken() {
+    tokenLine = line;
+    tokenColumn = offset + position - lineStart + 1;
+  }
+
+  // The word in the buffer between the given indices, shared with earlier reads of the same word
+  private String word(int start, int end) {
+    int hash = 0;
+    for (int index = start; index < end; index++) {
+      hash = 31 * hash + charAt(index);
+    }
+    int mask = words.length - 1;
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    for (String word = words[slot]; word != null; word = words[slot]) {
+      if (matches(word, start, end)) {
+        return word;
+      }
+      slot = (slot + 1) & mask;
+    }
+    String word = text(start, end);
+    // Past a limit words are no longer kept, so that unusual inputs cannot use up memory, and
+    // words whose text differs from the characters in the buffer are never found again
+    if (wordCount < MAX_WORDS && matches(word, start, end)) {
+      words[slot] = word;
+      wordCount++;
+      if (wordCount * 2 > words.length) {
+        rehash();
+      }
+    }
+    return word;
+  }
+
+  // If the given word is the same as the text in the buffer between the given indices
+  private boolean matches(String word, int start, int end) {
+    if (word.length() != end - start) {
+      return false;
+    }
+    for (int index = start; index < end; index++) {
+      if (word.charAt(index - start) != charAt(index)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Doubles the size of the table of words
+  private void rehash() {
+    String[] old = words;
+    words = new String[old.length * 2];
+    int mask = words.length - 1;
+    for (String word : old) {
+      if (word != null) {
+        int hash = word.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (words[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        words[slot] = word;
+      }
+    }
+  }
+
+  // If the character is whitespace, the same as \p{Space} in a pattern
+  private static boolean isSpace(char c) {
+    return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f' || c == 0x0B;
+  }
+}
@@ -0,0 +1,239 @@
+package cs3500.animator.util;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A helper to read animations in the binary format described in {@code BinaryFormat}, as written
+ * by {@code BinaryAnimationWriter}, and construct an animation from them. The file is mapped into
+ * memory and decoded where it lies. Its records are given to the builder the same way the
+ * records of a text animation are given when its chunks are read at once: the canvas and shape
+ * declarations first, then the motions and keyframes of each shape in the order the shapes were
+ * first used, each in the order it was written. Through the index of the shapes, the records of
+ * any shapes that are not wanted are skipped without being decoded.
+ */
+public final class BinaryAnimationReader {
+
+  private static final int SEGMENT_SIZE = 1 << 28; // Most bytes of records mapped at once
+
+  // Not instantiable
+  private BinaryAnimationReader() {
+  }
+
+  /**
+   * A factory for producing new animations from a binary file.
+   *
+   * @param path     The path of the file to read
+   * @param builder  A builder for helping to construct a new animation
+   * @param <Doc>    The main model interface type describing animations
+   * @return Final document of the animation
+   * @throws IllegalStateException if the file cannot be found or read, or is not a valid binary
+   *                               animation
+   */
+  public static <Doc> Doc parseFile(Path path, AnimationBuilder<Doc> builder) {
+    return parseFile(path, builder, null);
+  }
+
+  /**
+   * A factory for producing new animations from only the given shapes of a binary file. Every
+   * other shape is left out, its records skipped without being read.
+   *
+   * @param path     The path of the file to read
+   * @param builder  A builder for helping to construct a new animation
+   * @param shapes   The IDs of the shapes to read, or null to read every shape
+   * @param <Doc>    The main model interface type describing animations
+   * @return Final document of the animation
+   * @throws IllegalStateException if the file cannot be found or read, or is not a valid binary
+   *                               animation
+   */
+  public static <Doc> Doc parseFile(Path path, AnimationBuilder<Doc> builder,
+      Set<String> shapes) {
+    Objects.requireNonNull(path, "Must have non-null path");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return parse(channel, builder, shapes);
+    } catch (NoSuchFileException e) {
+      throw new IllegalStateException("File not found");
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read input: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Returns if the given file starts like a binary animation.
+   *
+   * @param channel The file to check
+   * @return true if the file starts with the magic number of the format
+   * @throws IOException if the file cannot be read
+   */
+  static boolean isBinary(FileChannel channel) throws IOException {
+    ByteBuffer magic = ByteBuffer.allocate(4);
+    while (magic.hasRemaining() && channel.read(magic, magic.position()) >= 0) {
+      // Reads until the magic number is complete or the file ends
+    }
+    return !magic.hasRemaining() && magic.getInt(0) == BinaryFormat.MAGIC;
+  }
+
+  /**
+   * Reads the given shapes of the given binary file into the given builder.
+   *
+   * @param channel  The file to read
+   * @param builder  A builder for helping to construct a new animation
+   * @param shapes   The IDs of the shapes to read, or null to read every shape
+   * @param <Doc>    The main model interface type describing animations
+   * @return Final document of the animation
+   * @throws IOException if the file cannot be read
+   * @throws IllegalStateException if the file is not a valid binary animation
+   */
+  static <Doc> Doc parse(FileChannel channel, AnimationBuilder<Doc> builder,
+      Set<String> shapes) throws IOException {
+    long size = channel.size();
+    if (size < BinaryFormat.HEADER_BYTES) {
+      throw new IllegalStateException("Malformed binary animation: truncated header");
+    }
+    ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BinaryFormat.HEADER_BYTES);
+    if (header.getInt() != BinaryFormat.MAGIC) {
+      throw new IllegalStateException("Not a binary animation");
+    }
+    int format = header.getInt();
+    if (format != BinaryFormat.FORMAT) {
+      throw new IllegalStateException("Unsupported binary animation version: " + format);
+    }
+    long dataOffset = header.getLong();
+    if (dataOffset < BinaryFormat.HEADER_BYTES || dataOffset > size
+        || dataOffset - BinaryFormat.HEADER_BYTES > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Malformed binary animation: bad offset of records");
+    }
+    try {
+      ByteBuffer tables = channel.map(FileChannel.MapMode.READ_ONLY, BinaryFormat.HEADER_BYTES,
+          dataOffset - BinaryFormat.HEADER_BYTES);
+      if ((BinaryFormat.readVarint(tables) & BinaryFormat.BOUNDS_DECLARED) != 0) {
+        builder.setBounds(readSigned(tables), readSigned(tables), readSigned(tables),
+            readSigned(tables));
+      }
+      String[] strings = new String[readCount(tables)];
+      for (int index = 0; index < strings.length; index++) {
+        byte[] bytes = new byte[readCount(tables)];
+        tables.get(bytes);
+        strings[index] = new String(bytes, StandardCharsets.UTF_8);
+      }
+      int declarations = readCount(tables);
+      for (int k = 0; k < declarations; k++) {
+        String name = strings[BinaryFormat.readVarint(tables)];
+        String type = strings[BinaryFormat.readVarint(tables)];
+        if (shapes == null || shapes.contains(name)) {
+          builder.declareShape(name, type);
+        }
+      }
+      int count = readCount(tables);
+      String[] names = new String[count];
+      int[] records = new int[count];
+      long[] offsets = new long[count + 1];
+      offsets[0] = dataOffset;
+      for (int k = 0; k < count; k++) {
+        names[k] = strings[BinaryFormat.readVarint(tables)];
+        records[k] = readCount(tables);
+        offsets[k + 1] = offsets[k] + readCount(tables);
+      }
+      if (offsets[count] > size) {
+        throw new IllegalStateException("Malformed binary animation: truncated records");
+      }
+      readBlocks(channel, builder, shapes, names, records, offsets);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalStateException("Malformed binary animation: data ends early");
+    } catch (IndexOutOfBoundsException e) {
+      throw new IllegalStateException("Malformed binary animation: no such string");
+    }
+    return builder.build();
+  }
+
+  // Reads the blocks of the wanted shapes, mapping as many whole blocks at once as fit in a
+  // segment
+  private static void readBlocks(FileChannel channel, AnimationBuilder<?> builder,
+      Set<String> shapes, String[] names, int[] records, long[] offsets) throws IOException {
+    MappedByteBuffer window = null;
+    long windowStart = 0;
+    long windowEnd = 0;
+    long size = offsets[names.length];
+    for (int k = 0; k < names.length; k++) {
+      if (shapes != null && !shapes.contains(names[k])) {
+        continue;
+      }
+      long from = offsets[k];
+      long to = offsets[k + 1];
+      if (window == null || to > windowEnd) {
+        long length = Math.max(to - from, Math.min(SEGMENT_SIZE, size - from));
+        window = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+        windowStart = from;
+        windowEnd = from + length;
+      }
+      ByteBuffer block = window.duplicate();
+      block.limit((int) (to - windowStart));
+      block.position((int) (from - windowStart));
+      readBlock(block, names[k], records[k], builder);
+    }
+  }
+
+  // Decodes the given number of records of the given shape, giving each to the builder
+  private static void readBlock(ByteBuffer block, String name, int count,
+      AnimationBuilder<?> builder) {
+    int[] v = new int[BinaryFormat.VALUES];
+    int[] from = new int[BinaryFormat.VALUES];
+    int tick = 0;
+    for (int k = 0; k < count; k++) {
+      long header = BinaryFormat.readVarlong(block);
+      int kind = (int) (header & ((1 << BinaryFormat.KIND_BITS) - 1));
+      int start = tick + BinaryFormat.unzigzag((int) (header >>> BinaryFormat.KIND_BITS));
+      if (kind == BinaryFormat.KEYFRAME) {
+        readChanges(block, v);
+        builder.addKeyframe(name, start, v[0], v[1], v[2], v[3], v[4], v[5], v[6]);
+        tick = start;
+      } else if (kind == BinaryFormat.MOTION || kind == BinaryFormat.CONTINUED) {
+        if (kind == BinaryFormat.MOTION) {
+          readChanges(block, v);
+        }
+        System.arraycopy(v, 0, from, 0, BinaryFormat.VALUES);
+        int end = start + readSigned(block);
+        readChanges(block, v);
+        builder.addMotion(name, start, from[0], from[1], from[2], from[3], from[4], from[5],
+            from[6], end, v[0], v[1], v[2], v[3], v[4], v[5], v[6]);
+        tick = end;
+      } else {
+        throw new IllegalStateException("Malformed binary animation: unknown record of " + name);
+      }
+    }
+    if (block.hasRemaining()) {
+      throw new IllegalStateException("Malformed binary animation: extra bytes after " + name);
+    }
+  }
+
+  // Reads a state as changes from the given state, which it then replaces
+  private static void readChanges(ByteBuffer buffer, int[] values) {
+    for (int index = 0; index < BinaryFormat.VALUES; index++) {
+      values[index] += readSigned(buffer);
+    }
+  }
+
+  // Reads a zigzag encoded int
+  private static int readSigned(ByteBuffer buffer) {
+    return BinaryFormat.unzigzag(BinaryFormat.readVarint(buffer));
+  }
+
+  // Reads a count or a length, which cannot be negative
+  private static int readCount(ByteBuffer buffer) {
+    int count = BinaryFormat.readVarint(buffer);
+    if (count < 0) {
+      throw new IllegalStateException("Malformed binary animation: negative count");
+    }
+    return count;
+  }
+}
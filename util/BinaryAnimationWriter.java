@@ -0,0 +1,214 @@
+package cs3500.animator.util;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes an animation in the binary format described in {@code BinaryFormat}, to be read back by
+ * {@code BinaryAnimationReader}. The writer is filled as a builder, so anything that can be given
+ * to a builder, such as a text animation being read or a model describing itself, can be written
+ * without building a model first. The records of each shape are encoded as they are given and
+ * kept in order, and the whole file is written once built.
+ */
+public final class BinaryAnimationWriter implements AnimationBuilder<Long> {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final OutputStream out; // Output the file is written to
+  private int[] bounds = null; // Bounding box for the canvas, null if not declared
+  private final Map<String, Integer> indices; // Index of each string in the string table
+  private final List<String> strings; // String table, in order
+  private final BinaryFormat.Bytes declarations; // Name and type of each declaration, in order
+  private int declarationCount = 0; // Number of declarations
+  private final Map<String, Block> blocks; // Records of each shape, in the order first used
+
+  /**
+   * Constructs a writer that writes to the given output once built. The output is flushed but
+   * not closed.
+   *
+   * @param out The output to write to
+   * @throws IllegalArgumentException if the output is null
+   */
+  public BinaryAnimationWriter(OutputStream out) {
+    if (out == null) {
+      throw new IllegalArgumentException("Null output given");
+    }
+    this.out = out;
+    indices = new HashMap<>();
+    strings = new ArrayList<>();
+    declarations = new BinaryFormat.Bytes();
+    blocks = new LinkedHashMap<>();
+  }
+
+  /**
+   * Writes the file, with everything given to the writer so far.
+   *
+   * @return the number of bytes written
+   * @throws IllegalStateException if the output cannot be written to
+   */
+  @Override
+  public Long build() {
+    BinaryFormat.Bytes tables = new BinaryFormat.Bytes();
+    if (bounds == null) {
+      tables.varint(0);
+    } else {
+      tables.varint(BinaryFormat.BOUNDS_DECLARED);
+      for (int value : bounds) {
+        tables.varint(BinaryFormat.zigzag(value));
+      }
+    }
+    tables.varint(strings.size());
+    for (String string : strings) {
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      tables.varint(bytes.length);
+      tables.append(bytes, bytes.length);
+    }
+    tables.varint(declarationCount);
+    tables.append(declarations.array(), declarations.size());
+    tables.varint(blocks.size());
+    long dataOffset = BinaryFormat.HEADER_BYTES;
+    long length = 0;
+    for (Block block : blocks.values()) {
+      tables.varint(block.name);
+      tables.varint(block.count);
+      tables.varint(block.bytes.size());
+      length += block.bytes.size();
+    }
+    dataOffset += tables.size();
+    ByteBuffer header = ByteBuffer.allocate(BinaryFormat.HEADER_BYTES);
+    header.putInt(BinaryFormat.MAGIC).putInt(BinaryFormat.FORMAT).putLong(dataOffset);
+    try {
+      OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+      buffered.write(header.array());
+      buffered.write(tables.array(), 0, tables.size());
+      for (Block block : blocks.values()) {
+        buffered.write(block.bytes.array(), 0, block.bytes.size());
+      }
+      buffered.flush();
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not write output: " + e.getMessage());
+    }
+    return dataOffset + length;
+  }
+
+  @Override
+  public AnimationBuilder<Long> setBounds(int x, int y, int width, int height) {
+    bounds = new int[]{x, y, width, height};
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<Long> declareShape(String name, String type) {
+    declarations.varint(indexOf(name));
+    declarations.varint(indexOf(type));
+    declarationCount++;
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<Long> addMotion(String name, int t1, int x1, int y1, int w1, int h1,
+      int r1, int g1, int b1, int t2, int x2, int y2, int w2, int h2, int r2, int g2, int b2) {
+    blockOf(name).motion(t1, x1, y1, w1, h1, r1, g1, b1, t2, x2, y2, w2, h2, r2, g2, b2);
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<Long> addKeyframe(String name, int t, int x, int y, int w, int h,
+      int r, int g, int b) {
+    blockOf(name).keyframe(t, x, y, w, h, r, g, b);
+    return this;
+  }
+
+  // Index of the given string in the string table, added if it is not there yet
+  private int indexOf(String string) {
+    Integer index = indices.get(string);
+    if (index == null) {
+      index = strings.size();
+      indices.put(string, index);
+      strings.add(string);
+    }
+    return index;
+  }
+
+  // Records of the given shape, created when it is first used
+  private Block blockOf(String name) {
+    Block block = blocks.get(name);
+    if (block == null) {
+      block = new Block(indexOf(name));
+      blocks.put(name, block);
+    }
+    return block;
+  }
+
+  /**
+   * Represents the encoded records of one shape, along with the end tick and state of the last
+   * record, which the next record is encoded against.
+   */
+  private static final class Block {
+
+    private final int name; // Index of the ID of the shape in the string table
+    private final BinaryFormat.Bytes bytes; // Records encoded so far
+    private final int[] values; // State the last record ended in
+    private int tick = 0; // Tick the last record ended at
+    private int count = 0; // Number of records
+
+    private Block(int name) {
+      this.name = name;
+      bytes = new BinaryFormat.Bytes();
+      values = new int[BinaryFormat.VALUES];
+    }
+
+    // Encodes a motion
+    private void motion(int t1, int x1, int y1, int w1, int h1, int r1, int g1, int b1, int t2,
+        int x2, int y2, int w2, int h2, int r2, int g2, int b2) {
+      boolean continued = x1 == values[0] && y1 == values[1] && w1 == values[2]
+          && h1 == values[3] && r1 == values[4] && g1 == values[5] && b1 == values[6];
+      header(t1, continued ? BinaryFormat.CONTINUED : BinaryFormat.MOTION);
+      if (!continued) {
+        changes(x1, y1, w1, h1, r1, g1, b1);
+      }
+      bytes.varint(BinaryFormat.zigzag(t2 - t1));
+      changes(x2, y2, w2, h2, r2, g2, b2);
+      tick = t2;
+    }
+
+    // Encodes a keyframe
+    private void keyframe(int t, int x, int y, int w, int h, int r, int g, int b) {
+      header(t, BinaryFormat.KEYFRAME);
+      changes(x, y, w, h, r, g, b);
+      tick = t;
+    }
+
+    // Encodes the kind and start tick of a record
+    private void header(int start, int kind) {
+      long change = BinaryFormat.zigzag(start - tick) & 0xFFFFFFFFL;
+      bytes.varlong(change << BinaryFormat.KIND_BITS | kind);
+      count++;
+    }
+
+    // Encodes a state as changes from the last one, which it then replaces
+    private void changes(int x, int y, int w, int h, int r, int g, int b) {
+      change(0, x);
+      change(1, y);
+      change(2, w);
+      change(3, h);
+      change(4, r);
+      change(5, g);
+      change(6, b);
+    }
+
+    // Encodes a value as the change from the same value in the last state
+    private void change(int index, int value) {
+      bytes.varint(BinaryFormat.zigzag(value - values[index]));
+      values[index] = value;
+    }
+  }
+}
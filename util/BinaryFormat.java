@@ -0,0 +1,167 @@
+package cs3500.animator.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Describes the binary animation format read by {@code BinaryAnimationReader} and written by
+ * {@code BinaryAnimationWriter}, and encodes and decodes the numbers in it.
+ *
+ * <p>A file starts with a header of {@code HEADER_BYTES} bytes: a magic number, the format
+ * version, and the offset of the first block of records as a long. The tables follow, written as
+ * varints: flags, the bounds if {@code BOUNDS_DECLARED} is set, a string table of the IDs and
+ * types of the shapes, the declarations as indices into the string table, and an index of the
+ * shapes that have records, each with its ID, the number of its records and the length of its
+ * block. The blocks follow in the order of the index, so the offset of each block is the sum of
+ * the lengths before it.</p>
+ *
+ * <p>Each record in a block starts with a varint holding its kind in the lowest bits and, above
+ * them, the change from the end tick of the previous record to its start tick. A motion that
+ * starts in the state the previous record ended in has no start state of its own; any other
+ * motion or keyframe gives its state as changes from that state. A motion then gives its length
+ * and its end state as changes from its start state. Changes are zigzag encoded, so small
+ * changes either way take a single byte, and a record before the first starts at tick 0 with
+ * every value 0.</p>
+ */
+final class BinaryFormat {
+
+  static final int MAGIC = 0x89455841; // "\u0089EXA", which cannot start a text animation
+  static final int FORMAT = 1;
+  static final int HEADER_BYTES = 16;
+  static final int BOUNDS_DECLARED = 1; // Flag set when the bounds follow the flags
+  static final int VALUES = 7; // Values of a state: x, y, width, height, red, green, blue
+  static final int KIND_BITS = 2;
+  static final int CONTINUED = 0; // Motion starting in the state the previous record ended in
+  static final int MOTION = 1; // Motion with a start state of its own
+  static final int KEYFRAME = 2; // Keyframe
+
+  // Not instantiable
+  private BinaryFormat() {
+  }
+
+  /**
+   * Maps a signed int to an unsigned one, so that numbers close to 0 either way stay small.
+   *
+   * @param value The signed int
+   * @return the zigzag encoded int
+   */
+  static int zigzag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  /**
+   * Maps a zigzag encoded int back to the signed int it was encoded from.
+   *
+   * @param value The zigzag encoded int
+   * @return the signed int
+   */
+  static int unzigzag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Reads a varint of up to five bytes, seven bits at a time from the lowest.
+   *
+   * @param buffer The buffer to read from
+   * @return the int read
+   * @throws java.nio.BufferUnderflowException if the buffer ends first
+   * @throws IllegalStateException if the varint is longer than an int
+   */
+  static int readVarint(ByteBuffer buffer) {
+    int result = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte b = buffer.get();
+      result |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return result;
+      }
+    }
+    throw new IllegalStateException("Malformed binary animation: varint too long");
+  }
+
+  /**
+   * Reads a varint of up to ten bytes, seven bits at a time from the lowest.
+   *
+   * @param buffer The buffer to read from
+   * @return the long read
+   * @throws java.nio.BufferUnderflowException if the buffer ends first
+   * @throws IllegalStateException if the varint is longer than a long
+   */
+  static long readVarlong(ByteBuffer buffer) {
+    long result = 0;
+    for (int shift = 0; shift < 70; shift += 7) {
+      byte b = buffer.get();
+      result |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return result;
+      }
+    }
+    throw new IllegalStateException("Malformed binary animation: varint too long");
+  }
+
+  /**
+   * Represents a growable array of bytes that varints are appended to.
+   */
+  static final class Bytes {
+
+    private byte[] bytes = new byte[64]; // Bytes appended, from 0 to size
+    private int size = 0; // Number of bytes appended
+
+    /**
+     * Appends an unsigned int as a varint.
+     *
+     * @param value The int, treated as unsigned
+     */
+    void varint(int value) {
+      varlong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Appends an unsigned long as a varint.
+     *
+     * @param value The long, treated as unsigned
+     */
+    void varlong(long value) {
+      if (size + 10 > bytes.length) {
+        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+      }
+      while ((value & ~0x7FL) != 0) {
+        bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      bytes[size++] = (byte) value;
+    }
+
+    /**
+     * Appends the given bytes.
+     *
+     * @param other The bytes to append
+     * @param length The number of bytes to append from the start of the array
+     */
+    void append(byte[] other, int length) {
+      if (size + length > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+      }
+      System.arraycopy(other, 0, bytes, size, length);
+      size += length;
+    }
+
+    /**
+     * Returns the bytes appended so far, in an array that may be longer.
+     *
+     * @return the array holding the bytes
+     */
+    byte[] array() {
+      return bytes;
+    }
+
+    /**
+     * Returns the number of bytes appended so far.
+     *
+     * @return the number of bytes
+     */
+    int size() {
+      return size;
+    }
+  }
+}
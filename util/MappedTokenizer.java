@@ -0,0 +1,83 @@
+package cs3500.animator.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tokenizes the text of an animation straight from a file mapped into memory. The file is mapped
+ * a large segment at a time and its bytes are read as ASCII characters where they lie, so nothing
+ * is decoded or copied onto the heap apart from the words given out, and files larger than the
+ * heap can be read. Words are decoded as UTF-8. A tokenizer may also be limited to a region of the
+ * file, so that several regions can be tokenized at once.
+ */
+final class MappedTokenizer extends AnimationTokenizer {
+
+  private static final int SEGMENT_SIZE = 1 << 28;
+
+  private final FileChannel channel; // File being read
+  private final long regionStart; // Offset in the file of the start of the region read
+  private final long regionEnd; // Offset in the file after the end of the region read
+  private MappedByteBuffer buffer; // Segment of the file mapped, null before the first
+
+  /**
+   * Constructs a tokenizer that reads the given file.
+   *
+   * @param channel The file to read, which must stay open while tokenizing
+   * @throws IOException if the size of the file cannot be read
+   */
+  MappedTokenizer(FileChannel channel) throws IOException {
+    this(channel, 0, channel.size());
+  }
+
+  /**
+   * Constructs a tokenizer that reads the given region of the given file. Lines and columns are
+   * counted from the start of the region.
+   *
+   * @param channel The file to read, which must stay open while tokenizing
+   * @param start The offset in the file of the start of the region
+   * @param end The offset in the file after the end of the region
+   */
+  MappedTokenizer(FileChannel channel, long start, long end) {
+    this.channel = channel;
+    this.regionStart = start;
+    this.regionEnd = end;
+  }
+
+  @Override
+  char charAt(int index) {
+    return (char) (buffer.get(index) & 0xFF);
+  }
+
+  @Override
+  String text(int start, int end) {
+    byte[] bytes = new byte[end - start];
+    for (int index = start; index < end; index++) {
+      bytes[index - start] = buffer.get(index);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  boolean read() {
+    if (regionStart + offset + limit >= regionEnd) {
+      return false;
+    }
+    // The next segment starts at the position, so a token is never split between segments
+    long from = regionStart + offset + position;
+    int length = (int) Math.min(SEGMENT_SIZE, regionEnd - from);
+    if (length == limit - position) {
+      throw new IllegalStateException("Token too long at offset " + from);
+    }
+    try {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read input: " + e.getMessage());
+    }
+    offset = from - regionStart;
+    position = 0;
+    limit = length;
+    return true;
+  }
+}
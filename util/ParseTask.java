@@ -0,0 +1,56 @@
+package cs3500.animator.util;
+
+import java.nio.channels.FileChannel;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Represents the reading of a range of chunks of an animation file, which may be split across the
+ * threads of a {@code ForkJoinPool}. Every task reads its own chunks into a shared array, so the
+ * chunks keep the order they are in within the file no matter which thread read them. A chunk
+ * that cannot be read is left as null.
+ */
+final class ParseTask extends RecursiveAction {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient FileChannel channel; // File being read
+  private final long[] boundaries; // Offset of the start of each chunk, then the end of the file
+  private final transient AnimationChunk[] result; // Chunks read, in order
+  private final int from; // Index of the first chunk to read
+  private final int to; // Index after the last chunk to read
+
+  /**
+   * Constructs a task reading the chunks with indices in [from, to).
+   *
+   * @param channel The file to read, which must stay open while reading
+   * @param boundaries The offset of the start of each chunk, then the end of the file
+   * @param result The array to read each chunk into
+   * @param from The index of the first chunk to read
+   * @param to The index after the last chunk to read
+   */
+  ParseTask(FileChannel channel, long[] boundaries, AnimationChunk[] result, int from, int to) {
+    this.channel = channel;
+    this.boundaries = boundaries;
+    this.result = result;
+    this.from = from;
+    this.to = to;
+  }
+
+  @Override
+  protected void compute() {
+    if (to - from > 1) {
+      int middle = (from + to) >>> 1;
+      invokeAll(new ParseTask(channel, boundaries, result, from, middle),
+          new ParseTask(channel, boundaries, result, middle, to));
+      return;
+    }
+    try {
+      result[from] = AnimationReader.parse(
+          new MappedTokenizer(channel, boundaries[from], boundaries[from + 1]),
+          new AnimationChunk());
+    } catch (IllegalStateException e) {
+      // The file is read again on a single thread to report the error where it is
+      result[from] = null;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package cs3500.animator.util;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Tokenizes the text of an animation read from a {@code Readable}, in large blocks into a buffer
+ * of characters that is reused for the whole input.
+ */
+final class TextTokenizer extends AnimationTokenizer {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final Readable source; // Source of the text
+  private char[] buffer; // Text read but not yet tokenized, from position to limit
+
+  /**
+   * Constructs a tokenizer that reads text from the given source.
+   *
+   * @param source The source of the text
+   */
+  TextTokenizer(Readable source) {
+    this.source = source;
+    buffer = new char[BUFFER_SIZE];
+  }
+
+  @Override
+  char charAt(int index) {
+    return buffer[index];
+  }
+
+  @Override
+  String text(int start, int end) {
+    return new String(buffer, start, end - start);
+  }
+
+  @Override
+  boolean read() {
+    if (position > 0) {
+      System.arraycopy(buffer, position, buffer, 0, limit - position);
+      limit -= position;
+      offset += position;
+      position = 0;
+    }
+    // A token longer than the buffer makes it grow
+    if (limit == buffer.length) {
+      buffer = Arrays.copyOf(buffer, buffer.length * 2);
+    }
+    int read;
+    try {
+      do {
+        read = source.read(CharBuffer.wrap(buffer, limit, buffer.length - limit));
+      } while (read == 0);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read input: " + e.getMessage());
+    }
+    if (read < 0) {
+      return false;
+    }
+    limit += read;
+    return true;
+  }
+}
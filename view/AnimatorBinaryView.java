@@ -0,0 +1,55 @@
+package cs3500.animator.view;
+
+import cs3500.animator.model.IROAnimatorModel;
+import cs3500.animator.util.BinaryAnimationWriter;
+import java.io.OutputStream;
+
+/**
+ * Represents an animation in the compact binary form written by {@code BinaryAnimationWriter},
+ * which is read back far faster than the text form and takes a fraction of its size.
+ */
+public class AnimatorBinaryView implements IAnimatorView {
+
+  private final OutputStream out; // Output the animation is written to
+  private boolean finished = false;
+
+  /**
+   * Constructs a view that will output the animation in binary form.
+   *
+   * @param out {@code OutputStream} to represent output
+   * @throws IllegalArgumentException if the given parameter is null
+   */
+  public AnimatorBinaryView(OutputStream out) {
+    if (out == null) {
+      throw new IllegalArgumentException("Null OutputStream given");
+    }
+    this.out = out;
+  }
+
+  /**
+   * Renders the animation in binary form.
+   *
+   * @param model The model to grab shapes from
+   * @param tick The tick in which the shapes should be grabbed from
+   * @throws IllegalArgumentException if the model is null
+   * @throws IllegalStateException if the output cannot be written to
+   */
+  @Override
+  public void render(IROAnimatorModel model, int tick) throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Null read-only model given");
+    }
+    if (!finished) {
+      // The whole animation is written from one snapshot, even if the model is edited meanwhile
+      BinaryAnimationWriter writer = new BinaryAnimationWriter(out);
+      model.getSnapshot().describeTo(writer);
+      writer.build();
+      finished = true;
+    }
+  }
+
+  @Override
+  public boolean finished() {
+    return this.finished;
+  }
+}
@@ -70,9 +70,11 @@ public class AnimatorInteractiveView extends JFrame implements IAnimatorInteract
 
   @Override
   public void render(IROAnimatorModel model, int tick) throws IllegalArgumentException {
-    viewingWindow.render(model, tick);
+    IROAnimatorModel frame = model.getSnapshot();
+    viewingWindow.render(frame, tick);
+    // The menu reads the model when it is opened, which may be long after this frame
     keyframes.acceptModel(model);
-    editor.acceptFinalTick(model.getFinalTick());
+    editor.acceptFinalTick(frame.getFinalTick());
     editor.updateTime(tick);
   }
 
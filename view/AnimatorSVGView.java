@@ -4,7 +4,6 @@ import cs3500.animator.model.IColoredShape;
 import cs3500.animator.model.IROAnimatorModel;
 import cs3500.animator.model.IROMotion;
 import cs3500.animator.model.ShapeType;
-import java.awt.Color;
 import java.util.List;
 import java.util.Scanner;
 
@@ -28,26 +27,31 @@ public class AnimatorSVGView extends AAnimatorView implements IAnimatorView {
    * Renders the animation in a SVG style text format.
    *
    * @param model The model to grab shapes from
-   * @param tick The tick at which the shapes should be grabbed from
+   * @param tick The tick rendered at, which does not change the document, since it always covers
+   *             the whole animation from its start
    * @throws IllegalArgumentException if the model is null or the ticks are negative
    */
   @Override
   public void render(IROAnimatorModel model, int tick) throws IllegalArgumentException {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Negative tick");
+    }
     if (!finished) {
-      write(model, tick);
+      // The whole document is written from one snapshot, even if the model is edited meanwhile
+      write(model.getSnapshot());
     }
   }
 
-  // Writes down the shapes, canvas, and motions in SVG style
-  private void write(IROAnimatorModel model, int tick) {
+  // Writes down the shapes, canvas, and motions in SVG style. The document animates each shape from
+  // the start, so every shape starts from its original state, even one that is not visible until
+  // its first motion
+  private void write(IROAnimatorModel model) {
     // Header, default size of 1500 x 1500
     int[] bounds = model.getBounds();
     append("<svg width=\"" + bounds[2] + "\" height=\"" + bounds[3] + "\" version=\"1.1\"\n\t\t"
         + "xmlns=\"http://www.w3.org/2000/svg\">\n\n");
-    List<IColoredShape> shapes = model.getShapesAt(tick);
-    List<String> ids = model.getNames();
-    int count = 0;
-    for (IColoredShape shape : shapes) {
+    for (String id : model.getNames()) {
+      IColoredShape shape = model.getShape(id);
       String shapeType;
       switch (shape.getShapeType()) {
         case RECTANGLE:
@@ -61,7 +65,6 @@ public class AnimatorSVGView extends AAnimatorView implements IAnimatorView {
               "Update the switch in render() to support new shape types");
       }
       append("<" + shapeType + " id=\"");
-      String id = ids.get(count++);
       int width = shape.getWidth();
       int height = shape.getHeight();
       if (shapeType.equals("ellipse")) {
@@ -69,11 +72,11 @@ public class AnimatorSVGView extends AAnimatorView implements IAnimatorView {
         width /= 2;
         height /= 2;
       }
-      Color color = shape.getColor();
+      int rgb = shape.getRGB();
       append(id + "\" x=\"" + shape.getX() + "\" y=\"" + shape.getY() + "\" width=\"" + width
           + "\" height=\""
-          + height + "\" fill=\"rgb(" + color.getRed() + "," + color.getGreen() + ","
-          + color.getBlue()
+          + height + "\" fill=\"rgb(" + ((rgb >> 16) & 0xFF) + "," + ((rgb >> 8) & 0xFF) + ","
+          + (rgb & 0xFF)
           + ")\" visibility=\"visible\" >\n");
       List<IROMotion> motions = model.getMotionsFor(id);
       for (IROMotion motion : motions) {
@@ -105,10 +108,10 @@ public class AnimatorSVGView extends AAnimatorView implements IAnimatorView {
     int y = shape.getY();
     int width = shape.getWidth();
     int height = shape.getHeight();
-    Color color = shape.getColor();
-    int red = color.getRed();
-    int green = color.getGreen();
-    int blue = color.getBlue();
+    int rgb = shape.getRGB();
+    int red = (rgb >> 16) & 0xFF;
+    int green = (rgb >> 8) & 0xFF;
+    int blue = rgb & 0xFF;
     StringBuilder temp = new StringBuilder();
     temp.append("rgb(").append(red).append(",").append(green).append(",").append(blue).append(")");
     for (String state : states) {
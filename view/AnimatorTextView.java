@@ -32,10 +32,13 @@ public class AnimatorTextView extends AAnimatorView implements IAnimatorView {
       throw new IllegalArgumentException("Null read-only model given");
     }
     if (!finished) {
-      int[] bounds = model.getBounds();
+      // The whole description is written from one snapshot, even if the model is edited meanwhile
+      IROAnimatorModel snapshot = model.getSnapshot();
+      int[] bounds = snapshot.getBounds();
 
       append("canvas " + bounds[0] + " " + bounds[1] + " " + bounds[2] + " " + bounds[3] + "\n");
-      append(model.getDescription());
+      // Streamed shape by shape, so large animations are never held as one String
+      snapshot.writeDescription(ap);
       finished = true;
     }
   }
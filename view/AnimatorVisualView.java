@@ -1,6 +1,7 @@
 package cs3500.animator.view;
 
 import cs3500.animator.model.IROAnimatorModel;
+import cs3500.animator.model.IROPlaybackModel;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import javax.swing.JFrame;
@@ -9,11 +10,13 @@ import javax.swing.JFrame;
  * Represents a visual view for {@code IAnimatorModel}. Utilizes {@code JFrame} to display and play
  * an animation.
  */
-public class AnimatorVisualView extends JFrame implements IAnimatorView {
+public class AnimatorVisualView extends JFrame implements IAnimatorView, IPlaybackView {
 
   private final DrawingPanel panel;
   private boolean boundsCreated = false;
   private boolean finished = false;
+  private int lastTick = -1; // Tick of the shapes on the panel, -1 if nothing is drawn
+  private int lastVersion; // Version of the model the shapes on the panel were taken from
 
   /**
    * Constructs a visual view for running animations.
@@ -40,20 +43,45 @@ public class AnimatorVisualView extends JFrame implements IAnimatorView {
    */
   @Override
   public void render(IROAnimatorModel model, int tick) throws IllegalArgumentException {
+    // Only the shapes are drawn, so the model is played like any other animation
+    render((IROPlaybackModel) model, tick);
+  }
+
+  /**
+   * Renders the animation visually, allowing it to play, without needing its motions.
+   *
+   * @param model Read-only animation to render shapes from
+   * @param tick The given tick to get the shapes at
+   * @throws IllegalArgumentException if the given model is null or the tick is negative
+   */
+  @Override
+  public void render(IROPlaybackModel model, int tick) throws IllegalArgumentException {
     if (model == null) {
       throw new IllegalArgumentException("Null read-only model given");
     }
+    // Every query for this frame goes to the same snapshot, so edits made meanwhile cannot tear it
+    IROPlaybackModel frame = model.getSnapshot();
     if (!boundsCreated) {
-      int[] bounds = model.getBounds();
+      int[] bounds = frame.getBounds();
       setPreferredSize(new Dimension(bounds[2], bounds[3]));
       panel.setPreferredSize(new Dimension(bounds[2], bounds[3]));
       panel.setMinimumSize(new Dimension(bounds[2], bounds[3]));
       setMinimumSize(new Dimension(bounds[2], bounds[3]));
       boundsCreated = true;
     }
-    // getShapesAt(int) will throw exception if tick < 0
-    panel.draw(model.getShapesAt(tick));
-    if (tick > model.getFinalTick()) {
+    // While playing, only the shapes that changed since the last tick are redrawn. Jumps from
+    // looping or scrubbing redraw the whole frame from only the shapes visible in it, as does an
+    // edit to the model since the indices of the shapes may have moved
+    int version = frame.getVersion();
+    if (lastTick < 0 || version != lastVersion || (tick != lastTick && tick != lastTick + 1)) {
+      // getIndexedVisibleShapesAt(int) will throw exception if tick < 0
+      panel.drawVisible(frame.getIndexedVisibleShapesAt(tick));
+    } else {
+      panel.update(frame.getChangesBetween(lastTick, tick));
+    }
+    lastTick = tick;
+    lastVersion = version;
+    if (tick > frame.getFinalTick()) {
       this.finished = true;
     }
     repaint();
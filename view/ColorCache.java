@@ -0,0 +1,47 @@
+package cs3500.animator.view;
+
+import java.awt.Color;
+
+/**
+ * Represents a bounded cache of {@code Color} objects keyed by their packed 0xRRGGBB value, so that
+ * painting shapes every frame does not create a new color per shape. Each packed value maps to a
+ * single slot, which holds the color last requested for that slot. Not thread safe, meant to be
+ * used from the thread that paints.
+ */
+final class ColorCache {
+
+  private final Color[] colors; // Cached colors, indexed by the hash of their value
+  private final int shift; // Shift that turns a hash into a slot
+
+  /**
+   * Constructs an empty cache that holds at most the given number of colors.
+   *
+   * @param capacity The number of colors to hold, rounded up to a power of two
+   * @throws IllegalArgumentException if the capacity is not positive
+   */
+  ColorCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(capacity - 1));
+    this.colors = new Color[1 << bits];
+    this.shift = 32 - bits;
+  }
+
+  /**
+   * Returns the color with the given packed value, creating it only if it is not cached.
+   *
+   * @param rgb The color, packed as 0xRRGGBB
+   * @return the color
+   */
+  Color get(int rgb) {
+    // Spreads similar colors across the slots
+    int slot = (rgb * 0x9E3779B1) >>> shift;
+    Color color = colors[slot];
+    if (color == null || (color.getRGB() & 0xFFFFFF) != rgb) {
+      color = new Color(rgb);
+      colors[slot] = color;
+    }
+    return color;
+  }
+}
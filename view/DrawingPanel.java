@@ -1,19 +1,28 @@
 package cs3500.animator.view;
 
 import cs3500.animator.model.IColoredShape;
+import cs3500.animator.model.ShapeDelta;
 import cs3500.animator.model.ShapeType;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.util.Arrays;
 import java.util.List;
 import javax.swing.JPanel;
 
 /**
- * Represents a drawing panel that draws shapes.
+ * Represents a drawing panel that draws shapes. Only the visible shapes are kept, each at its
+ * index, so painting and updating never touch the shapes that are not shown.
  */
 public class DrawingPanel extends JPanel implements IDrawingPanel {
 
-  private List<IColoredShape> shapes;
+  private static final int COLOR_CACHE_SIZE = 1024;
+
+  private IColoredShape[] byIndex = new IColoredShape[16]; // Shape at each index, null if hidden
+  private int[] visible = new int[16]; // Indices of the shapes kept, in ascending order
+  private int count = 0; // Number of shapes kept
+  private boolean drawn = false; // If any shapes have been drawn yet
+  private final ColorCache colors = new ColorCache(COLOR_CACHE_SIZE); // Colors painted with
 
   /**
    * Constructs a default drawing panel.
@@ -28,30 +37,97 @@ public class DrawingPanel extends JPanel implements IDrawingPanel {
   public void paintComponent(Graphics g) {
     super.paintComponent(g);
     Graphics2D graphics2D = (Graphics2D) g;
-    // Only draws the shapes if they are not null
-    if (shapes != null) {
-      for (IColoredShape shape : shapes) {
-        if (shape != null) {
-          graphics2D.setPaint(shape.getColor());
-          ShapeType type = shape.getShapeType();
-          switch (type) {
-            case ELLIPSE:
-              graphics2D.fillOval(shape.getX(), shape.getY(), shape.getWidth(), shape.getHeight());
-              break;
-            case RECTANGLE:
-              graphics2D.fillRect(shape.getX(), shape.getY(), shape.getWidth(), shape.getHeight());
-              break;
-            default:
-              throw new IllegalStateException("Invalid shape type");
-          }
-        }
+    // Only the visible shapes are kept, in the order they are drawn
+    for (int k = 0; k < count; k++) {
+      IColoredShape shape = byIndex[visible[k]];
+      graphics2D.setPaint(colors.get(shape.getRGB()));
+      ShapeType type = shape.getShapeType();
+      switch (type) {
+        case ELLIPSE:
+          graphics2D.fillOval(shape.getX(), shape.getY(), shape.getWidth(), shape.getHeight());
+          break;
+        case RECTANGLE:
+          graphics2D.fillRect(shape.getX(), shape.getY(), shape.getWidth(), shape.getHeight());
+          break;
+        default:
+          throw new IllegalStateException("Invalid shape type");
       }
     }
   }
 
   @Override
   public void draw(List<IColoredShape> shapes) {
-    this.shapes = shapes;
+    clear();
+    if (shapes != null) {
+      for (int index = 0; index < shapes.size(); index++) {
+        set(index, shapes.get(index));
+      }
+    }
+    drawn = shapes != null;
+    repaint();
+  }
+
+  @Override
+  public void drawVisible(List<ShapeDelta> shapes) {
+    if (shapes == null) {
+      throw new IllegalArgumentException("Null shapes given");
+    }
+    clear();
+    for (ShapeDelta shape : shapes) {
+      set(shape.getIndex(), shape.getShape());
+    }
+    drawn = true;
     repaint();
   }
+
+  @Override
+  public void update(List<ShapeDelta> changes) {
+    if (changes == null) {
+      throw new IllegalArgumentException("Null changes given");
+    }
+    if (!drawn) {
+      throw new IllegalStateException("No shapes drawn to update");
+    }
+    for (ShapeDelta change : changes) {
+      set(change.getIndex(), change.getShape());
+    }
+    repaint();
+  }
+
+  // Forgets every shape kept, without going over the hidden ones
+  private void clear() {
+    for (int k = 0; k < count; k++) {
+      byIndex[visible[k]] = null;
+    }
+    count = 0;
+  }
+
+  // Keeps the given shape at the given index if it is visible, or forgets the shape there if not
+  private void set(int index, IColoredShape shape) {
+    if (index >= byIndex.length) {
+      byIndex = Arrays.copyOf(byIndex, Math.max(index + 1, byIndex.length * 2));
+    }
+    // Shapes that are not visible are given a negative size
+    boolean shown = shape != null && shape.getWidth() >= 0;
+    boolean kept = byIndex[index] != null;
+    byIndex[index] = shown ? shape : null;
+    if (shown == kept) {
+      return;
+    }
+    // Shapes mostly come in order of index, so the position is usually at the end
+    int position = count > 0 && visible[count - 1] < index ? count
+        : Arrays.binarySearch(visible, 0, count, index);
+    if (shown) {
+      position = position < 0 ? -position - 1 : position;
+      if (count == visible.length) {
+        visible = Arrays.copyOf(visible, count * 2);
+      }
+      System.arraycopy(visible, position, visible, position + 1, count - position);
+      visible[position] = index;
+      count++;
+    } else {
+      System.arraycopy(visible, position + 1, visible, position, count - position - 1);
+      count--;
+    }
+  }
 }
@@ -12,13 +12,15 @@ import javax.swing.event.ChangeEvent;
 /**
  * Represents an editor menu to be used in {@code IAnimatorInteractiveView}. Contains button to
  * pause or play the animation, slider for speed, and slider for the point to rewind or go ahead in
- * the animation. Also contains a checkbox for looping.
+ * the animation. Also contains a checkbox for looping, and buttons to undo or redo edits.
  */
 public class EditorMenu extends JPanel implements IAnimatorMenu {
 
   private ActionListener listener; // action listener
   private JButton pauseButton; // Pause or play button
   private JCheckBox loopBox; // Checkbox to loop or not
+  private JButton undoButton; // Undoes the last edit
+  private JButton redoButton; // Redoes the last undone edit
   private JSlider timeSlider; // Controls the point to play the animation at, is represented in
   // seconds, not ticks
   private JSlider speedSlider; // Controls the speed of the animation
@@ -51,6 +53,14 @@ public class EditorMenu extends JPanel implements IAnimatorMenu {
     loopBox.setActionCommand("loop");
     add(loopBox);
 
+    // Adds the buttons to undo and redo edits
+    undoButton = new JButton("Undo");
+    undoButton.setActionCommand("undo");
+    add(undoButton);
+    redoButton = new JButton("Redo");
+    redoButton.setActionCommand("redo");
+    add(redoButton);
+
     // Adds the speed slider
     speedSlider = new JSlider(1, 999, 1);
     speedSlider.addChangeListener((ChangeEvent e) -> changeSpeed());
@@ -91,6 +101,8 @@ public class EditorMenu extends JPanel implements IAnimatorMenu {
     this.listener = listener;
     pauseButton.addActionListener(listener);
     loopBox.addActionListener(listener);
+    undoButton.addActionListener(listener);
+    redoButton.addActionListener(listener);
     speedButton.addActionListener(listener);
     timeButton.addActionListener(listener);
   }
@@ -1,6 +1,7 @@
 package cs3500.animator.view;
 
 import cs3500.animator.model.IColoredShape;
+import cs3500.animator.model.ShapeDelta;
 import java.util.List;
 
 /**
@@ -13,4 +14,25 @@ public interface IDrawingPanel {
    * @param shapes List of shapes to draw
    */
   void draw(List<IColoredShape> shapes);
+
+  /**
+   * Draws and renders only the given shapes, each at its index, such as the visible shapes of a
+   * frame from {@code getIndexedVisibleShapesAt(int)}, so that the hidden ones are never touched.
+   *
+   * @param shapes List of the shapes to draw with their indices, in ascending order of index
+   * @throws IllegalArgumentException if the given list is null
+   */
+  void drawVisible(List<ShapeDelta> shapes);
+
+  /**
+   * Replaces the shapes at the indices of the given deltas with their new state and renders the
+   * result, leaving every other shape as it was last drawn. The shapes last drawn must be indexed
+   * the same way, in the order of the IDs of the model, as given by {@code getShapesAt(int)} or
+   * {@code getIndexedVisibleShapesAt(int)}.
+   *
+   * @param changes List of changed shapes to apply onto the shapes last drawn
+   * @throws IllegalArgumentException if the given list is null
+   * @throws IllegalStateException if no shapes have been drawn yet
+   */
+  void update(List<ShapeDelta> changes);
 }
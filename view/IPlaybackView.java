@@ -0,0 +1,27 @@
+package cs3500.animator.view;
+
+import cs3500.animator.model.IROPlaybackModel;
+
+/**
+ * Represents a view that only plays an animation, drawing its shapes tick by tick. It needs
+ * nothing but the shapes at each tick, so it can play any {@code IROPlaybackModel}, including
+ * animations that cannot describe their motions.
+ */
+public interface IPlaybackView {
+
+  /**
+   * Draws the shapes of the animation at the particular tick.
+   *
+   * @param model Read-only animation to grab shapes from
+   * @param tick The tick to get the shapes at
+   * @throws IllegalArgumentException if the given model is null or the tick is negative
+   */
+  void render(IROPlaybackModel model, int tick) throws IllegalArgumentException;
+
+  /**
+   * Returns true if the view has no more items to animate.
+   *
+   * @return Boolean whether the view has any more items to animate
+   */
+  boolean finished();
+}
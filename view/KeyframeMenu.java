@@ -3,6 +3,7 @@ package cs3500.animator.view;
 import cs3500.animator.model.IColoredShape;
 import cs3500.animator.model.IROAnimatorModel;
 import cs3500.animator.model.IROMotion;
+import cs3500.animator.model.ShapeSnapshot;
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
@@ -292,8 +293,10 @@ public class KeyframeMenu extends JPanel implements IAnimatorMenu, ActionListene
         add(panel);
         panel.setMinimumSize(new Dimension(5, 5));
         IColoredShape shape = model.getShape(id);
-        shape.setShape(0, 0, 10, 10);
-        panel.draw(new ArrayList<>(Collections.singletonList(shape)));
+        // Shapes from the model are read-only, so a small preview is drawn instead
+        IColoredShape preview = new ShapeSnapshot(shape.getShapeType(), 0, 0, 10, 10,
+            shape.getColor());
+        panel.draw(new ArrayList<>(Collections.singletonList(preview)));
       }
       validate();
       repaint();